@@ -0,0 +1,94 @@
+package benchmark;
+
+import model.gameModel.Entity;
+import model.gameModel.skills.ProfessionDecorator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the actions a player takes: GameBoard.movePieceTo,
+ * combat and invoke, and the Entity.clone done for every saved state.
+ *
+ * Each action is reverted cheaply after it is measured (position
+ * swapped back, HP restored, undo stack emptied) so the game stays
+ * in a steady state for the whole run.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBenchmark {
+
+    @State(Scope.Thread)
+    public static class Pieces extends EngineState {
+        public Entity soldier;
+        public ProfessionDecorator commander;
+        public Entity target;
+        public int fromX, fromY, toX, toY;
+
+        @Override
+        protected void setUpState() {
+            soldier = human(1);
+            commander = (ProfessionDecorator) human(0);
+            target = alien(1);
+            fromX = soldier.getXPos();
+            fromY = soldier.getYPos();
+            // An empty cell without weapon next to the soldier
+            int[][] neighbours = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+            for (int[] n : neighbours) {
+                int x = fromX + n[0];
+                int y = fromY + n[1];
+                if (x < 0 || y < 0 || x >= boardSize || y >= boardSize) continue;
+                if (board.getBoardCell(x, y).getEntity() == null
+                        && board.getBoardCell(x, y).getWeapon() == null) {
+                    toX = x;
+                    toY = y;
+                    return;
+                }
+            }
+            throw new IllegalStateException("No free cell next to " + soldier.getName());
+        }
+    }
+
+    @Benchmark
+    public void movePieceTo(Pieces p) {
+        p.board.movePieceTo(p.fromX, p.fromY, p.toX, p.toY);
+        int x = p.fromX, y = p.fromY;
+        p.fromX = p.toX;
+        p.fromY = p.toY;
+        p.toX = x;
+        p.toY = y;
+    }
+
+    @Benchmark
+    public void combat(Pieces p) {
+        p.board.combat(p.soldier, p.target.getXPos(), p.target.getYPos());
+        p.target.setCurrentHP(p.target.getMaxHP());
+    }
+
+    @Benchmark
+    public void invoke(Pieces p) {
+        p.board.invoke(p.commander, p.target.getXPos(), p.target.getYPos());
+        p.target.setCurrentHP(p.target.getMaxHP());
+    }
+
+    @Benchmark
+    public Object cloneEntity(Pieces p) {
+        return p.soldier.clone();
+    }
+
+    @Benchmark
+    public Object cloneProfessional(Pieces p) {
+        return p.commander.clone();
+    }
+}
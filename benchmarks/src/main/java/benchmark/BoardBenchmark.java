@@ -0,0 +1,97 @@
+package benchmark;
+
+import model.gameModel.Entity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of GameBoard.updateBoard, the TeamManager lookups,
+ * the move range search and the attack target query.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+
+    private static final int LOOKUPS = 1024;
+
+    @State(Scope.Thread)
+    public static class Lookups extends EngineState {
+        public int[] xs = new int[LOOKUPS];
+        public int[] ys = new int[LOOKUPS];
+        public String[] names = new String[LOOKUPS];
+        public int next;
+
+        @Override
+        protected void setUpState() {
+            Random rand = new Random(42);
+            for (int i = 0; i < LOOKUPS; i++) {
+                xs[i] = rand.nextInt(boardSize);
+                ys[i] = rand.nextInt(boardSize);
+                // Names are compared by reference, so take the member's own instance
+                names[i] = member(rand.nextInt(2), rand.nextInt(piecesPerTeam)).getName();
+            }
+        }
+
+        public int next() {
+            next = (next + 1) & (LOOKUPS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public void updateBoard(EngineState engine) {
+        engine.board.updateBoard();
+    }
+
+    @Benchmark
+    public void syncBoard(EngineState engine) {
+        engine.board.syncBoard();
+    }
+
+    @Benchmark
+    public Object getEntityByXY(Lookups lookups) {
+        int i = lookups.next();
+        return lookups.teamManager.getEntityByXY(lookups.xs[i], lookups.ys[i]);
+    }
+
+    @Benchmark
+    public Object getEntityByName(Lookups lookups) {
+        return lookups.teamManager.getEntityByName(lookups.names[lookups.next()]);
+    }
+
+    @Benchmark
+    public void scanAllCells(EngineState engine, Blackhole bh) {
+        int bsize = engine.boardSize;
+        for (int x = 0; x < bsize; x++) {
+            for (int y = 0; y < bsize; y++) {
+                bh.consume(engine.teamManager.getEntityByXY(x, y));
+            }
+        }
+    }
+
+    @Benchmark
+    public Object getMoveRange(EngineState engine) {
+        Entity leader = engine.member(0, 0);
+        return engine.board.getMoveRange(leader.getXPos(), leader.getYPos());
+    }
+
+    @Benchmark
+    public Object getAttackTargets(EngineState engine) {
+        Entity leader = engine.member(0, 0);
+        return engine.board.getAttackTargets(leader.getXPos(), leader.getYPos());
+    }
+}
@@ -0,0 +1,64 @@
+package benchmark;
+
+import model.gameModel.Entity;
+import model.gameModel.GameBoard;
+import model.gameModel.GameSettings;
+import model.gameModel.HeadlessGameListener;
+import model.gameModel.TeamManager;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import resources.Consts;
+
+/**
+ * A headless game shared by the engine benchmarks,
+ * parameterised by board size and pieces per team.
+ */
+@State(Scope.Thread)
+public class EngineState {
+
+    /** The seed of the board setup. */
+    private static final long SEED = 42L;
+
+    @Param({"16", "64", "128"})
+    public int boardSize;
+
+    // Pieces are dispatched in a 4x4 square around the leader, so a team holds at most 16
+    @Param({"4", "8"})
+    public int piecesPerTeam;
+
+    public GameBoard board;
+    public TeamManager teamManager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // Weapons are never picked up, so pieces keep their profession.
+        // A fixed seed gives every trial the same board
+        board = new GameBoard(new HeadlessGameListener(false),
+                new GameSettings(boardSize, piecesPerTeam, boardSize, false, SEED));
+        teamManager = board.getTeamManager();
+        setUpState();
+    }
+
+    /**
+     * Prepares the state of a benchmark once the game is set up.
+     * JMH gives no order between @Setup methods of a class and
+     * its superclass, so subclasses override this instead.
+     */
+    protected void setUpState() {
+    }
+
+    public Entity member(int team, int i) {
+        return teamManager.getTeam(team).get(i);
+    }
+
+    public Entity human(int i) {
+        return member(Consts.HUMAN_TEAM_NUM, i);
+    }
+
+    public Entity alien(int i) {
+        return member(Consts.ALIEN_TEAM_NUM, i);
+    }
+}
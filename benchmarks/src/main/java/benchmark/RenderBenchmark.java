@@ -0,0 +1,86 @@
+package benchmark;
+
+import model.gameModel.Entity;
+import model.gameModel.Team;
+import model.graphicModel.Art;
+import model.graphicModel.Bitmap;
+import model.graphicModel.GameScreen;
+import model.graphicModel.ImageManager;
+import model.graphicModel.SpriteCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import resources.Consts;
+
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the software renderer: ImageManager.resizeImage and
+ * Bitmap.render of the background and of every piece into the screen.
+ * Run with -Djava.awt.headless=true on machines without a display.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RenderBenchmark {
+
+    @State(Scope.Thread)
+    public static class Screen extends EngineState {
+        public GameScreen screen;
+        public BufferedImage skin;
+        public double scale;
+        public Bitmap sprite;
+        public Bitmap background;
+
+        @Override
+        protected void setUpState() {
+            // The renderer reads the cell size from the board size in Consts
+            Consts.setBSIZE(boardSize);
+            screen = new GameScreen(Consts.SCR_WIDTH, Consts.SCR_HEIGHT);
+            skin = ImageManager.getCharSkin("Soldier");
+            scale = (double) Consts.getRectsize() / (double) skin.getWidth();
+            sprite = SpriteCache.getCharSprite("Soldier", Consts.getRectsize());
+            Art.resetBackground();
+            background = Art.background;
+        }
+    }
+
+    @Benchmark
+    public BufferedImage resizeImage(Screen s) {
+        return ImageManager.resizeImage(s.skin, s.scale);
+    }
+
+    @Benchmark
+    public void renderSprite(Screen s) {
+        s.screen.render(s.sprite, Consts.MAP_X_OFFSET, Consts.MAP_Y_OFFSET);
+    }
+
+    @Benchmark
+    public void renderBackground(Screen s) {
+        s.screen.render(s.background, 0, 0);
+    }
+
+    @Benchmark
+    public void renderPieces(Screen s) {
+        int rectSize = Consts.getRectsize();
+        for (int t = 0; t < Consts.NUM_TEAMS; t++) {
+            Team team = s.teamManager.getTeam(t);
+            for (int i = 0; i < team.size(); i++) {
+                Entity e = team.get(i);
+                if (e.getXPos() < 0) continue;
+                s.screen.render(SpriteCache.getCharSprite(e.getProfessionName(), rectSize),
+                        e.getXPos() * rectSize + Consts.MAP_X_OFFSET,
+                        e.getYPos() * rectSize + Consts.MAP_Y_OFFSET);
+            }
+        }
+    }
+}
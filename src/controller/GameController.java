@@ -8,10 +8,11 @@ import model.gameModel.*;
 import model.gameModel.Point;
 import model.gameModel.skills.ProfessionDecorator;
 import resources.Consts;
-import sun.applet.Main;
 import view.Rectmech;
 import view.MainPanel;
 
+import java.io.File;
+
 
 // TODO: Auto-generated Javadoc
 /**
@@ -28,7 +29,7 @@ import view.MainPanel;
  * It responsible for the initailization of GameBoard.
  */
 
-public class GameController {
+public class GameController implements GameListenerInterface {
 
     /** The game board reference. */
     private GameBoard gameBoard; // Original in Memento Pattern
@@ -36,8 +37,17 @@ public class GameController {
     /** The care taker reference. */
     private CareTaker careTaker; // Caretaker in Memento Pattern
     
-    /** The current being moved cell. */
-    private BoardCell curMoveCell; // The entity is currently being moved
+    /** The background writer of saved games, shared by all games. */
+    private final SaveGameWriter saveWriter = new SaveGameWriter(new File(GameBoard.SAVE_FILE));
+
+    /** The background writer of autosaves, shared by all games. */
+    private final SaveGameWriter autoSaveWriter = new SaveGameWriter(new File(GameBoard.AUTOSAVE_FILE));
+
+    /** The mirror of the live game for external tools, shared by all games, null if disabled. */
+    private final LiveStateFile liveState = Consts.LIVE_STATE ? new LiveStateFile(new File(GameBoard.LIVE_STATE_FILE)) : null;
+
+    /** The cell of the entity currently being moved. */
+    private int curMoveX, curMoveY;
     
     /** The short message displaying time constant. */
     private static final int SHORT_MESSAGE = 2000;
@@ -85,7 +95,11 @@ public class GameController {
         Consts.setNumWeapons(num_weapons);
         Rectmech.setLength(Consts.getRectsize());
         gameBoard = new GameBoard(this);
-        careTaker = new CareTaker();
+        gameBoard.setSaveWriter(saveWriter);
+        gameBoard.setAutoSaveWriter(autoSaveWriter, Consts.AUTOSAVE_TURNS);
+        gameBoard.enableJournal(Consts.JOURNAL_SNAPSHOT_TURNS);
+        if (liveState != null) gameBoard.setLiveState(liveState);
+        careTaker = new CareTaker(Consts.UNDO_DEPTH);
     }
 
 
@@ -93,18 +107,17 @@ public class GameController {
      * moveHandler(): Handle the first click on move menu
      * Parameters: point: the coordinate on the map
      * It gets a point from movePiece function in GridPanel
-     * then calls calculateSteps function of a entity to
-     * get a number of step it can move.
+     * then finds the cells the entity can reach within the
+     * number of steps it can move.
      *
      * @param point the point
-     * @return the int
+     * @return the move range of the entity
      */
 
-    public int moveHandler(Point point) {
-
-        //TODO: get a number of steps this entity can move
-        curMoveCell = gameBoard.getBoardCell(point.x, point.y);
-        return curMoveCell.getEntity().calculateSteps(Consts.INIT_STEPS);
+    public ReachabilityField moveHandler(Point point) {
+        curMoveX = point.x;
+        curMoveY = point.y;
+        return gameBoard.getMoveRange(point.x, point.y);
     }
 
     /**
@@ -112,22 +125,24 @@ public class GameController {
      * To handle the event when attack item is clicked on action menu
      *
      * @param point the point
-     * @return the int
+     * @return the pieces the entity can attack
      */
-    public int attackHandler(Point point) {
-        curMoveCell = gameBoard.getBoardCell(point.x, point.y);
-        return 1;
+    public TargetSet attackHandler(Point point) {
+        curMoveX = point.x;
+        curMoveY = point.y;
+        return gameBoard.getAttackTargets(point.x, point.y);
     }
 
     /**
      * Invoke handler.
      * To handle the event when invoke item is clicked on action menu
      * @param point the point
-     * @return the int
+     * @return the pieces the entity can invoke its skill on
      */
-    public int invokeHandler(Point point) {
-        curMoveCell = gameBoard.getBoardCell(point.x, point.y);
-        return curMoveCell.getEntity().getAttackRange();
+    public TargetSet invokeHandler(Point point) {
+        curMoveX = point.x;
+        curMoveY = point.y;
+        return gameBoard.getInvokeTargets(point.x, point.y);
     }
 
     /**
@@ -138,9 +153,7 @@ public class GameController {
      */
 
     public void doMove(Point point) {
-        int xPos = curMoveCell.getEntity().getXPos();
-        int yPos = curMoveCell.getEntity().getYPos();
-        gameBoard.movePieceTo(xPos, yPos, point.x, point.y);
+        gameBoard.movePieceTo(curMoveX, curMoveY, point.x, point.y);
         careTaker.saveMemento(gameBoard.createMemento());
     }
 
@@ -150,7 +163,7 @@ public class GameController {
      * @param point the cooridinate of a cell being clicked
      */
     public void doAttack(Point point) {
-        gameBoard.combat(curMoveCell.getEntity(), point); // curMoveCell: attacker, points: recipients
+        gameBoard.combat(gameBoard.getEntity(curMoveX, curMoveY), point); // curMove: attacker, points: recipients
         careTaker.saveMemento(gameBoard.createMemento());
     }
 
@@ -160,9 +173,8 @@ public class GameController {
      * @param point the cooridinate of a cell being clicked
      */
     public void invoke(Point point) {
-        Entity e = curMoveCell.getEntity();
-        ProfessionDecorator p = (ProfessionDecorator) getBoardCell(e.getXPos(), e.getYPos()).getEntity();
-        gameBoard.invoke(p, point); // curMoveCell: attacker, points: recipients
+        ProfessionDecorator p = (ProfessionDecorator) gameBoard.getEntity(curMoveX, curMoveY);
+        gameBoard.invoke(p, point); // curMove: attacker, points: recipients
         careTaker.saveMemento(gameBoard.createMemento());
     }
 
@@ -174,16 +186,33 @@ public class GameController {
         gameBoard.restoreMemento(careTaker.retrieveMemento());
     }
 
+    /**
+     * Redo.
+     * Redo last undone movement.
+     */
+    public void redo() {
+        gameBoard.redoMemento(careTaker.retrieveRedoMemento());
+    }
+
 
     /**
-     * Gets the board cell by a specific cooridinates.
+     * Gets the seed the tiles of the current game are picked from.
+     *
+     * @return the seed
+     */
+    public long getSeed() {
+        return gameBoard.getTileSeed();
+    }
+
+    /**
+     * Gets the entity by a specific cooridinates.
      *
      * @param x the x
      * @param y the y
-     * @return the board cell
+     * @return the entity, or null
      */
-    public BoardCell getBoardCell(int x, int y) {
-        return gameBoard.getBoardCell(x, y);
+    public Entity getEntity(int x, int y) {
+        return gameBoard.getEntity(x, y);
     }
 
     /**
@@ -240,9 +269,18 @@ public class GameController {
 
     /**
      * Load game.
+     * A saved game of another board size changes the board size in Consts,
+     * the view has to be rebuilt for it.
      */
     public void loadGame() {
         gameBoard.loadGame();
+        // Loaded pieces are new objects, old mementos no longer apply
+        careTaker = new CareTaker(Consts.UNDO_DEPTH);
+        int bsize = gameBoard.getSettings().getBoardSize();
+        if (bsize != Consts.getBSIZE()) {
+            Consts.setBSIZE(bsize);
+            Rectmech.setLength(Consts.getRectsize());
+        }
     }
 
     public void setAttack(String type) {
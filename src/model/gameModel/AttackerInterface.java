@@ -9,7 +9,5 @@ public interface AttackerInterface {
     void attack(Entity target, ObservationSubject subject);
     void moveTo(Entity target, int x, int y);
     void invokeSkill(Command command, Entity target);
-    void undoLastInvoke();
-    // void redoLastInvoke();
 
 }
@@ -2,70 +2,60 @@ package model.gameModel;
 
 import model.graphicModel.ImageManager;
 
-import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
-import java.io.IOException;
-import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
 
 /**
  * Created by Human v Alien Team on 2016/4/6.
+ *
+ * A cell of the game board. It holds no data of its own, it reads and
+ * writes the cell of a ChunkedBoard, so the board needs no object per
+ * cell and a BoardCell is only created when a cell is asked for.
  */
-public class BoardCell implements Serializable {
-    boolean cursorHover;
-    Entity entity;
-    Weapon weapon;
-    transient BufferedImage charImg;
-    transient BufferedImage tileImg;
-    
-    public BoardCell() {
-        cursorHover = false;
-        entity = null;
-        charImg = null;
-        tileImg = ImageManager.getRandomTiles();
+public class BoardCell {
+    private final ChunkedBoard board;
+    private final int x, y;
+
+    public BoardCell(ChunkedBoard board, int x, int y) {
+        this.board = board;
+        this.x = x;
+        this.y = y;
     }
 
     public void setEntity(Entity entity) {
-        this.entity = entity;
-        if(entity != null) {
-            String p = entity.getProfessionName();
-            this.charImg = ImageManager.getCharSkin(p);
-        }
+        board.setEntity(x, y, entity);
     }
 
     public Entity getEntity() {
-        return entity;
+        return board.getEntity(x, y);
     }
-    
+
     public void setWeapon(Weapon weapon){
-    	this.weapon = weapon;
-    	//add image
+    	board.setWeapon(x, y, weapon);
     }
-    
+
     public Weapon getWeapon(){
-    	return weapon;
+    	return board.getWeapon(x, y);
     }
 
     public void clearWeapon() {
-        this.weapon = null;
+        board.setWeapon(x, y, null);
     }
 
-    public BufferedImage getCharImg() {
-        return charImg;
+    public int getTile() {
+        return board.getTile(x, y);
     }
 
-    private void writeObject(ObjectOutputStream out) throws IOException {
-        out.defaultWriteObject();
-        if(charImg != null)
-            ImageIO.write(charImg, "png", out); // png is lossless
-        if(tileImg != null)
-            ImageIO.write(tileImg, "png", out); // png is lossless
+    public void setTile(int tile) {
+        board.setTile(x, y, tile);
+    }
+
+    public BufferedImage getCharImg() {
+        // Skin is looked up on demand, a headless game never loads images
+        Entity entity = getEntity();
+        return entity == null ? null : ImageManager.getCharSkin(entity.getProfessionName());
     }
 
-    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
-        in.defaultReadObject();
-        charImg = ImageIO.read(in);
-        tileImg = ImageIO.read(in);
+    public BufferedImage getTileImg() {
+        return ImageManager.getTile(getTile());
     }
 }
@@ -1,8 +1,5 @@
 package model.gameModel;
 
-import java.util.Deque;
-import java.util.LinkedList;
-
 /**
  * Created by Human v Alien Team on 2016/5/16.
  * Memento behavioral design pattern:
@@ -11,25 +8,113 @@ import java.util.LinkedList;
  * 1. To save snapshots
  * 2. To provide a interface for client to retrieve
  *    previous saved snapshot for state recovering
+ * 3. To keep retrieved snapshots for redo until a new
+ *    snapshot is saved
  *
  * Caretaker cannot et the information encapsulated in
  * the memento object.
  *
+ * Mementos are kept in a ring buffer of a fixed depth: when it is
+ * full, the oldest memento is overwritten, so a long game keeps
+ * the same amount of undo history instead of a growing one.
+ *
  */
 
 public class CareTaker {
 
-    protected Deque<MementoInterface> undoStack = new LinkedList<MementoInterface>();
+    /** The default number of mementos kept. */
+    public static final int DEFAULT_DEPTH = 100;
+
+    /** The ring buffer of mementos. */
+    private final MementoInterface[] mementos;
+
+    /** The slot of the oldest memento. */
+    private int start;
+
+    /** The number of mementos kept, including the ones to redo. */
+    private int count;
+
+    /** The number of mementos not undone, the ones after it can be redone. */
+    private int cursor;
+
+    public CareTaker() {
+        this(DEFAULT_DEPTH);
+    }
+
+    /**
+     * Instantiates a new care taker.
+     *
+     * @param depth the number of mementos kept
+     */
+    public CareTaker(int depth) {
+        mementos = new MementoInterface[Math.max(depth, 1)];
+    }
+
+    private int slot(int i) {
+        return (start + i) % mementos.length;
+    }
 
     public MementoInterface retrieveMemento(){
-        if (!undoStack.isEmpty()) {
-            MementoInterface m = undoStack.pollLast();
+        if (cursor > 0) {
+            cursor --;
+            return mementos[slot(cursor)];
+        }
+        return null;
+    }
+
+    /**
+     * Retrieves the memento undone last, to redo it.
+     *
+     * @return the memento, or null if there is nothing to redo
+     */
+    public MementoInterface retrieveRedoMemento(){
+        if (cursor < count) {
+            MementoInterface m = mementos[slot(cursor)];
+            cursor ++;
             return m;
         }
         return null;
     }
 
     public void saveMemento(MementoInterface memento){
-        undoStack.offerLast(memento);
+        if (cursor == mementos.length) {
+            // Full, overwrite the oldest
+            start = slot(1);
+            cursor --;
+        }
+        // A new memento drops the ones that could be redone
+        for (int i = cursor + 1; i < count; i ++) {
+            mementos[slot(i)] = null;
+        }
+        mementos[slot(cursor)] = memento;
+        cursor ++;
+        count = cursor;
+    }
+
+    /**
+     * Gets the number of mementos that can be undone.
+     *
+     * @return the size
+     */
+    public int size() {
+        return cursor;
+    }
+
+    /**
+     * Gets the number of mementos that can be redone.
+     *
+     * @return the redo size
+     */
+    public int redoSize() {
+        return count - cursor;
+    }
+
+    /**
+     * Gets the maximum number of mementos kept.
+     *
+     * @return the depth
+     */
+    public int getDepth() {
+        return mementos.length;
     }
 }
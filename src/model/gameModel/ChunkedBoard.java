@@ -0,0 +1,153 @@
+package model.gameModel;
+
+import model.graphicModel.ImageManager;
+
+/**
+ * The cells of the game board, stored in square chunks.
+ * Responsibility:
+ *
+ * 1. To hold the entity, the weapon and the tile of every cell
+ *    without an object per cell. A layer of a chunk is a flat array
+ *    keyed by the cell within the chunk, and it is only allocated
+ *    the first time a cell of the chunk is written, so a huge board
+ *    only pays for the parts that hold anything.
+ *
+ * 2. To store the tile as one byte per cell. A cell whose tile was
+ *    never set has the tile the seed of the game picks for it, which
+ *    is worked out when it is read and takes no memory.
+ *
+ * Reading a cell of a chunk that was never written returns null, or
+ * the tile of the seed. Writing null to such a cell allocates nothing.
+ */
+public class ChunkedBoard {
+
+	/** The side of a chunk is 1 << CHUNK_SHIFT cells. */
+	static final int CHUNK_SHIFT = 5;
+	static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	/** The board size. */
+	private final int size;
+
+	/** The number of chunks along a side of the board. */
+	private final int chunks;
+
+	/** The seed the tiles are picked from. */
+	private final long tileSeed;
+
+	// The layers, indexed by chunk, then by cell within the chunk
+	private final Entity[][] entities;
+	private final Weapon[][] weapons;
+	private final byte[][] tiles;
+
+	/**
+	 * Instantiates a new, empty board.
+	 *
+	 * @param size the board size
+	 * @param tileSeed the seed the tiles are picked from
+	 */
+	public ChunkedBoard(int size, long tileSeed) {
+		this.size = size;
+		this.tileSeed = tileSeed;
+		this.chunks = (size + CHUNK_MASK) >> CHUNK_SHIFT;
+		this.entities = new Entity[chunks * chunks][];
+		this.weapons = new Weapon[chunks * chunks][];
+		this.tiles = new byte[chunks * chunks][];
+	}
+
+	/**
+	 * Gets the board size.
+	 *
+	 * @return the board size
+	 */
+	public int size() {
+		return size;
+	}
+
+	private int chunk(int x, int y) {
+		if(x < 0 || y < 0 || x >= size || y >= size) {
+			throw new ArrayIndexOutOfBoundsException("Cell " + x + ", " + y + " is off the board");
+		}
+		return (x >> CHUNK_SHIFT) * chunks + (y >> CHUNK_SHIFT);
+	}
+
+	private static int cell(int x, int y) {
+		return (x & CHUNK_MASK) << CHUNK_SHIFT | (y & CHUNK_MASK);
+	}
+
+	public Entity getEntity(int x, int y) {
+		Entity[] chunk = entities[chunk(x, y)];
+		return chunk == null ? null : chunk[cell(x, y)];
+	}
+
+	public void setEntity(int x, int y, Entity entity) {
+		int c = chunk(x, y);
+		if(entities[c] == null) {
+			if(entity == null) return;
+			entities[c] = new Entity[CHUNK_SIZE * CHUNK_SIZE];
+		}
+		entities[c][cell(x, y)] = entity;
+	}
+
+	/**
+	 * Removes the entity from every cell.
+	 */
+	public void clearEntities() {
+		for(int c = 0; c < entities.length; c ++) {
+			entities[c] = null;
+		}
+	}
+
+	public Weapon getWeapon(int x, int y) {
+		Weapon[] chunk = weapons[chunk(x, y)];
+		return chunk == null ? null : chunk[cell(x, y)];
+	}
+
+	public void setWeapon(int x, int y, Weapon weapon) {
+		int c = chunk(x, y);
+		if(weapons[c] == null) {
+			if(weapon == null) return;
+			weapons[c] = new Weapon[CHUNK_SIZE * CHUNK_SIZE];
+		}
+		weapons[c][cell(x, y)] = weapon;
+	}
+
+	/**
+	 * Gets the tile of a cell, the one picked by the seed unless the
+	 * cell was given another.
+	 *
+	 * @param x the x
+	 * @param y the y
+	 * @return the tile index, from 1 to ImageManager.NUM_TILES
+	 */
+	public int getTile(int x, int y) {
+		int c = chunk(x, y);
+		byte tile = tiles[c] == null ? 0 : tiles[c][cell(x, y)];
+		if(tile == 0) {
+			return ImageManager.getTileIndex(tileSeed, x, y);
+		}
+		return tile;
+	}
+
+	public void setTile(int x, int y, int tile) {
+		int c = chunk(x, y);
+		if(tiles[c] == null) {
+			if(tile == 0) return;
+			tiles[c] = new byte[CHUNK_SIZE * CHUNK_SIZE];
+		}
+		tiles[c][cell(x, y)] = (byte) tile;
+	}
+
+	/**
+	 * Gets the number of chunks that hold an entity, a weapon or a tile.
+	 *
+	 * @return the allocated chunk count
+	 */
+	public int getAllocatedChunks() {
+		int n = 0;
+		for(int c = 0; c < entities.length; c ++) {
+			if(entities[c] != null || weapons[c] != null || tiles[c] != null) n ++;
+		}
+		return n;
+	}
+}
@@ -0,0 +1,236 @@
+package model.gameModel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Append-only journal of the actions of a game.
+ * Responsibility:
+ *
+ * 1. To record every executed action (move, attack, invoke or pass)
+ *    with the turn it was made in, as rows of primitive columns.
+ *
+ * 2. To keep a GameSnapshot of the whole game every K turns, so any
+ *    turn can be reached by restoring the nearest earlier snapshot
+ *    and replaying fewer than K actions. See GameBoard.jumpToTurn().
+ *
+ * Actions are recorded by GameBoard. A weapon pick up is part of the
+ * move that found it, so a replay makes the same choice again.
+ */
+public class CommandJournal {
+
+    /** Action types. */
+    public static final byte MOVE = 0;
+    public static final byte ATTACK = 1;
+    public static final byte INVOKE = 2;
+    public static final byte PASS = 3;
+
+    /** The number of turns between snapshots. */
+    private final int snapshotTurns;
+
+    /** The number of recorded actions. */
+    private int size;
+
+    // Action columns, indexed by action number
+    private int[] turn;
+    private byte[] type;
+    private int[] fromX;
+    private int[] fromY;
+    private int[] toX;
+    private int[] toY;
+    private boolean[] pickUp;
+
+    /** The snapshots in order of turn. */
+    private final ArrayList<GameSnapshot> snapshots = new ArrayList<GameSnapshot>();
+
+    /** The number of actions recorded before each snapshot was taken. */
+    private final ArrayList<Integer> snapshotActions = new ArrayList<Integer>();
+
+    /**
+     * Instantiates a new command journal.
+     *
+     * @param snapshotTurns the number of turns between snapshots
+     */
+    public CommandJournal(int snapshotTurns) {
+        this.snapshotTurns = Math.max(snapshotTurns, 1);
+        int capacity = 64;
+        turn = new int[capacity];
+        type = new byte[capacity];
+        fromX = new int[capacity];
+        fromY = new int[capacity];
+        toX = new int[capacity];
+        toY = new int[capacity];
+        pickUp = new boolean[capacity];
+    }
+
+    /**
+     * Gets the number of turns between snapshots.
+     *
+     * @return the snapshot interval
+     */
+    public int getSnapshotTurns() {
+        return snapshotTurns;
+    }
+
+    /**
+     * Checks if a snapshot is due at the start of a turn.
+     *
+     * @param t the turn count
+     * @return true, if a snapshot should be taken
+     */
+    public boolean isSnapshotDue(int t) {
+        return t % snapshotTurns == 0;
+    }
+
+    /**
+     * Records an action.
+     *
+     * @param t the turn count the action was made in
+     * @param actionType the action type, e.g. MOVE
+     * @param fx the x of the acting entity
+     * @param fy the y of the acting entity
+     * @param tx the x of the destination or target
+     * @param ty the y of the destination or target
+     * @param pickedUp true, if a move picked up a weapon
+     */
+    public void record(int t, byte actionType, int fx, int fy, int tx, int ty, boolean pickedUp) {
+        if(size == turn.length) grow(size * 2);
+        turn[size] = t;
+        type[size] = actionType;
+        fromX[size] = fx;
+        fromY[size] = fy;
+        toX[size] = tx;
+        toY[size] = ty;
+        pickUp[size] = pickedUp;
+        size ++;
+    }
+
+    private void grow(int capacity) {
+        turn = Arrays.copyOf(turn, capacity);
+        type = Arrays.copyOf(type, capacity);
+        fromX = Arrays.copyOf(fromX, capacity);
+        fromY = Arrays.copyOf(fromY, capacity);
+        toX = Arrays.copyOf(toX, capacity);
+        toY = Arrays.copyOf(toY, capacity);
+        pickUp = Arrays.copyOf(pickUp, capacity);
+    }
+
+    /**
+     * Adds a snapshot taken at the start of a turn,
+     * after all actions recorded so far.
+     *
+     * @param snapshot the snapshot
+     */
+    public void addSnapshot(GameSnapshot snapshot) {
+        snapshots.add(snapshot);
+        snapshotActions.add(size);
+    }
+
+    /**
+     * Drops all actions made in a turn or later, and all snapshots
+     * taken after the start of that turn, e.g. when a turn is undone
+     * or play goes on from an earlier turn.
+     *
+     * @param t the turn count
+     */
+    public void truncate(int t) {
+        while(size > 0 && turn[size - 1] >= t) {
+            size --;
+        }
+        int last = snapshots.size() - 1;
+        while(last > 0 && (snapshots.get(last).getTurn() > t
+                || snapshotActions.get(last) > size)) {
+            snapshots.remove(last);
+            snapshotActions.remove(last);
+            last --;
+        }
+    }
+
+    /**
+     * Finds the latest snapshot taken at or before a turn.
+     *
+     * @param t the turn count
+     * @return the index of the snapshot, or -1 if there is none
+     */
+    public int findSnapshot(int t) {
+        for(int i = snapshots.size() - 1; i >= 0; i --) {
+            if(snapshots.get(i).getTurn() <= t) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Gets a snapshot.
+     *
+     * @param i the index of the snapshot
+     * @return the snapshot
+     */
+    public GameSnapshot getSnapshot(int i) {
+        return snapshots.get(i);
+    }
+
+    /**
+     * Gets the number of actions recorded before a snapshot.
+     *
+     * @param i the index of the snapshot
+     * @return the action number to replay from
+     */
+    public int getSnapshotAction(int i) {
+        return snapshotActions.get(i);
+    }
+
+    /**
+     * Gets the number of snapshots.
+     *
+     * @return the number of snapshots
+     */
+    public int getSnapshotCount() {
+        return snapshots.size();
+    }
+
+    /**
+     * Gets the number of recorded actions.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the turn count of the last action.
+     *
+     * @return the last turn, or -1 if nothing is recorded
+     */
+    public int getLastTurn() {
+        return size == 0 ? -1 : turn[size - 1];
+    }
+
+    public int getTurn(int i) {
+        return turn[i];
+    }
+
+    public byte getType(int i) {
+        return type[i];
+    }
+
+    public int getFromX(int i) {
+        return fromX[i];
+    }
+
+    public int getFromY(int i) {
+        return fromY[i];
+    }
+
+    public int getToX(int i) {
+        return toX[i];
+    }
+
+    public int getToY(int i) {
+        return toY[i];
+    }
+
+    public boolean isPickUp(int i) {
+        return pickUp[i];
+    }
+}
@@ -4,9 +4,9 @@ import model.gameModel.skills.Attack;
 import model.gameModel.skills.Command;
 import model.gameModel.skills.Move;
 
+import java.io.IOException;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
-import java.util.Deque;
-import java.util.LinkedList;
 
 /**
  * Created by Human v Alien Team on 2016/3/10.
@@ -42,8 +42,11 @@ Cloneable, Serializable {
 	private int xPos;	// x coordinates
 	private int yPos; //y coords
 
-	public Deque<Command> undoStack = new LinkedList<Command>();
-	public Deque<Command> redoStack = new LinkedList<Command>();
+	private transient OccupancyGrid occupancy; // Spatial index this unit is registered in
+	private transient Entity occupant; // The object standing for this unit in the index
+
+	private transient EntityStore store; // Stat columns this unit is a view over, or null
+	private transient int storeId = -1; // Slot of this unit in the store
 
 	
 	public Entity(String name){
@@ -55,7 +58,17 @@ Cloneable, Serializable {
 	@Override
 	public Object clone(){
 		try{
-			return super.clone();
+			Entity copy = (Entity) super.clone();
+			// A copy is never on the board, keep it out of the spatial index
+			copy.occupancy = null;
+			copy.occupant = null;
+			// A copy is a snapshot, it keeps its own stats out of the store
+			if(store != null) {
+				copy.loadFromStore();
+				copy.store = null;
+				copy.storeId = -1;
+			}
+			return copy;
 		} catch(Exception e){
 			return null;
 		}
@@ -63,7 +76,7 @@ Cloneable, Serializable {
 
 	@Override
 	public int calculateSteps(int steps) {
-		return steps * agility;
+		return steps * getAgility();
 	}
 
 	@Override
@@ -114,11 +127,13 @@ Cloneable, Serializable {
 	}
 
 	public int getTeam() {
+		if(store != null) return store.get(storeId, EntityStore.TEAM);
 		return team;
 	}
 
 	public void setTeam(int team) {
-		this.team = team;
+		if(store != null) store.set(storeId, EntityStore.TEAM, team);
+		else this.team = team;
 	}
 	
 	public String getName(){
@@ -146,43 +161,53 @@ Cloneable, Serializable {
 	}
 
 	public int getStrength() {
+		if(store != null) return store.get(storeId, EntityStore.STRENGTH);
 		return strength;
 	}
 
 	public void setStrength(int strength) {
-		this.strength = strength;
+		if(store != null) store.set(storeId, EntityStore.STRENGTH, strength);
+		else this.strength = strength;
 	}
 
 	public int getAgility() {
+		if(store != null) return store.get(storeId, EntityStore.AGILITY);
 		return agility;
 	}
 
 	public void setAgility(int agility) {
-		this.agility = agility;
+		if(store != null) store.set(storeId, EntityStore.AGILITY, agility);
+		else this.agility = agility;
 	}
 
 	public int getMaxHP() {
+		if(store != null) return store.get(storeId, EntityStore.MAX_HP);
 		return maxHP;
 	}
 
 	public void setMaxHP(int hp) {
-		this.maxHP = hp;
+		if(store != null) store.set(storeId, EntityStore.MAX_HP, hp);
+		else this.maxHP = hp;
 	}
 	
 	public int getCurrentHP() {
+		if(store != null) return store.get(storeId, EntityStore.HP);
 		return currentHP;
 	}
 
 	public void setCurrentHP(int hp) {
-		this.currentHP = hp;
+		if(store != null) store.set(storeId, EntityStore.HP, hp);
+		else this.currentHP = hp;
 	}
 
 	public int getDefense() {
+		if(store != null) return store.get(storeId, EntityStore.DEFENSE);
 		return defense;
 	}
 
 	public void setDefense(int defense) {
-		this.defense = defense;
+		if(store != null) store.set(storeId, EntityStore.DEFENSE, defense);
+		else this.defense = defense;
 	}
 	
 	public String getAttackName(){
@@ -212,24 +237,96 @@ Cloneable, Serializable {
 	}
 	
 	public void setPos(int x, int y) {
-		this.xPos = x;
-		this.yPos = y;
+		if(occupancy != null) {
+			occupancy.move(occupant, getXPos(), getYPos(), x, y);
+		}
+		if(store != null) {
+			store.set(storeId, EntityStore.X_POS, x);
+			store.set(storeId, EntityStore.Y_POS, y);
+		} else {
+			this.xPos = x;
+			this.yPos = y;
+		}
 	}
 	
 	public int getXPos(){
+		if(store != null) return store.get(storeId, EntityStore.X_POS);
 		return xPos;
 	}
 	
 	public int getYPos(){
+		if(store != null) return store.get(storeId, EntityStore.Y_POS);
 		return yPos;
 	}
 
+	/**
+	 * Registers this unit in a spatial index.
+	 * Every later call of setPos() moves the occupant in the index.
+	 *
+	 * @param grid the index, or null to detach this unit
+	 * @param occupant the object returned by the index for this unit
+	 */
+	public void setOccupancy(OccupancyGrid grid, Entity occupant) {
+		this.occupancy = grid;
+		this.occupant = occupant;
+	}
+
+	/**
+	 * Moves the stats of this unit into a slot of an entity store.
+	 * From then on this object is a view over that slot.
+	 *
+	 * @param entityStore the store
+	 */
+	public void attachStore(EntityStore entityStore) {
+		int id = entityStore.allocate();
+		entityStore.set(id, EntityStore.HP, getCurrentHP());
+		entityStore.set(id, EntityStore.MAX_HP, getMaxHP());
+		entityStore.set(id, EntityStore.STRENGTH, getStrength());
+		entityStore.set(id, EntityStore.AGILITY, getAgility());
+		entityStore.set(id, EntityStore.DEFENSE, getDefense());
+		entityStore.set(id, EntityStore.X_POS, getXPos());
+		entityStore.set(id, EntityStore.Y_POS, getYPos());
+		entityStore.set(id, EntityStore.TEAM, getTeam());
+		entityStore.set(id, EntityStore.MOVED, isMoved() ? 1 : 0);
+		this.store = entityStore;
+		this.storeId = id;
+	}
+
+	/**
+	 * Gets the slot of this unit in its entity store.
+	 *
+	 * @return the entity id, or -1 if this unit is not in a store
+	 */
+	public int getStoreId() {
+		return storeId;
+	}
+
+	// Copy the stats of the slot back into the fields of this object
+	private void loadFromStore() {
+		currentHP = store.get(storeId, EntityStore.HP);
+		maxHP = store.get(storeId, EntityStore.MAX_HP);
+		strength = store.get(storeId, EntityStore.STRENGTH);
+		agility = store.get(storeId, EntityStore.AGILITY);
+		defense = store.get(storeId, EntityStore.DEFENSE);
+		xPos = store.get(storeId, EntityStore.X_POS);
+		yPos = store.get(storeId, EntityStore.Y_POS);
+		team = store.get(storeId, EntityStore.TEAM);
+		moved = store.get(storeId, EntityStore.MOVED) != 0;
+	}
+
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		if(store != null) loadFromStore();
+		out.defaultWriteObject();
+	}
+
 	public void setMoved() {
-		moved = true;
+		if(store != null) store.set(storeId, EntityStore.MOVED, 1);
+		else moved = true;
 	}
 
 	public void unsetMoved() {
-		moved = false;
+		if(store != null) store.set(storeId, EntityStore.MOVED, 0);
+		else moved = false;
 	}
 
 	protected int calculateDamage() {
@@ -243,23 +340,24 @@ Cloneable, Serializable {
 	}
 
 	public boolean isMoved() {
+		if(store != null) return store.get(storeId, EntityStore.MOVED) != 0;
 		return moved;
 	}
 	
 	//remove later
 	public void printAllAttributes(){
 		System.out.println("Name: " + name);
-		System.out.println("Team: " + team);
-		System.out.println("MaxHP: " + maxHP);
-		System.out.println("CurrentHP: " + currentHP);
-		System.out.println("Strength: " + strength);
-		System.out.println("Agility: " + agility);
-		System.out.println("Defense: " + defense);
+		System.out.println("Team: " + getTeam());
+		System.out.println("MaxHP: " + getMaxHP());
+		System.out.println("CurrentHP: " + getCurrentHP());
+		System.out.println("Strength: " + getStrength());
+		System.out.println("Agility: " + getAgility());
+		System.out.println("Defense: " + getDefense());
 		System.out.println("Attack Name: " + attackName);
 		System.out.println("Profession: " + professionName);
 		System.out.println("Description: " + description);
 		System.out.println("Weapon: " + weapon);
-		System.out.println("Coordinates: " + xPos + ", " + yPos);
+		System.out.println("Coordinates: " + getXPos() + ", " + getYPos());
 		System.out.println();
 	}
 
@@ -269,7 +367,6 @@ Cloneable, Serializable {
 		Command attack = new Attack(damage, subject);
 		attack.execute(target);
 		setMoved();
-		undoStack.offerLast(attack);
 	}
 
 	@Override
@@ -277,7 +374,6 @@ Cloneable, Serializable {
 		Command move = new Move(x, y);
 		move.execute(target);
 		setMoved();
-		undoStack.offerLast(move);
 	}
 
 	@Override
@@ -285,27 +381,15 @@ Cloneable, Serializable {
 		setMoved();
 	}
 
-	/**
-	 * Undo
-	 */
-	@Override
-	public void undoLastInvoke() {
-		if (!undoStack.isEmpty()) {
-			Command previousInvoke = undoStack.pollLast();
-			redoStack.offerLast(previousInvoke);
-			previousInvoke.undo();
-		}
-	}
-
 	@Override
 	public String toString() {
 		return name + ";" +
 				professionName + ";" +
-				maxHP + ";" +
-				currentHP + ";" +
-				strength +  ";" +
-				agility + ";" +
-				defense;
+				getMaxHP() + ";" +
+				getCurrentHP() + ";" +
+				getStrength() +  ";" +
+				getAgility() + ";" +
+				getDefense();
 	}
 
 }
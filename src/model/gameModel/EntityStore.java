@@ -0,0 +1,186 @@
+package model.gameModel;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+/**
+ * Off-heap storage of the entity stats.
+ * Responsibility:
+ *
+ * 1. To keep hp, max hp, strength, agility, defense, position,
+ *    team and moved flag of every entity in a row of ints indexed
+ *    by entity id.
+ *
+ * 2. To run bulk operations (reset moved flags, check if a team
+ *    moved or is defeated) as linear passes over these rows.
+ *
+ * 3. To keep the rows off the heap, in a direct buffer, so the
+ *    stats of a huge game are never copied or scanned by the garbage
+ *    collector, and can be handed to a writer as they are.
+ *
+ * An Entity attached to a store becomes a thin view over its
+ * slot: its getters and setters read and write the row.
+ * A ProfessionDecorator shares the slot of its basic entity.
+ */
+public class EntityStore {
+
+    // The fields of a row
+    static final int HP = 0;
+    static final int MAX_HP = 1;
+    static final int STRENGTH = 2;
+    static final int AGILITY = 3;
+    static final int DEFENSE = 4;
+    static final int X_POS = 5;
+    static final int Y_POS = 6;
+    static final int TEAM = 7;
+    static final int MOVED = 8; // 1 if moved, else 0
+
+    /** The number of ints in a row. */
+    public static final int FIELDS = 9;
+
+    /** The number of allocated slots. */
+    private int size;
+
+    /** The number of slots the buffer has room for. */
+    private int capacity;
+
+    /** The rows, in native byte order. */
+    private ByteBuffer buffer;
+
+    /** The rows as ints, field f of entity i at i * FIELDS + f. */
+    private IntBuffer stats;
+
+    /**
+     * Instantiates a new entity store.
+     *
+     * @param capacity the initial number of slots
+     */
+    public EntityStore(int capacity) {
+        grow(Math.max(capacity, 1));
+    }
+
+    /**
+     * Allocates a slot for a new entity.
+     *
+     * @return the entity id
+     */
+    int allocate() {
+        if(size == capacity) grow(size * 2);
+        return size ++;
+    }
+
+    private void grow(int newCapacity) {
+        ByteBuffer grown = ByteBuffer.allocateDirect(newCapacity * FIELDS * 4).order(ByteOrder.nativeOrder());
+        if(buffer != null) {
+            ByteBuffer old = buffer.duplicate();
+            old.clear();
+            grown.put(old);
+            grown.clear();
+        }
+        buffer = grown;
+        stats = grown.asIntBuffer();
+        capacity = newCapacity;
+    }
+
+    /**
+     * Gets a field of an entity.
+     *
+     * @param id the entity id
+     * @param field the field, e.g. HP
+     * @return the value
+     */
+    int get(int id, int field) {
+        return stats.get(id * FIELDS + field);
+    }
+
+    /**
+     * Sets a field of an entity.
+     *
+     * @param id the entity id
+     * @param field the field, e.g. HP
+     * @param value the value
+     */
+    void set(int id, int field, int value) {
+        stats.put(id * FIELDS + field, value);
+    }
+
+    /**
+     * Gets the rows of all entities without copying them. The view is
+     * read only, and only valid until the store grows.
+     *
+     * @return the rows, size() * FIELDS ints in native byte order
+     */
+    public ByteBuffer getRows() {
+        ByteBuffer rows = buffer.asReadOnlyBuffer().order(ByteOrder.nativeOrder());
+        rows.limit(size * FIELDS * 4);
+        return rows;
+    }
+
+    /**
+     * Gets the number of entities in the store.
+     *
+     * @return the size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Sets moved flag to false for all entities of a team.
+     *
+     * @param t the team number
+     */
+    public void resetMoved(int t) {
+        for(int i = 0; i < size; i ++) {
+            if(get(i, TEAM) == t) set(i, MOVED, 0);
+        }
+    }
+
+    /**
+     * Checks if any entity of a team has moved.
+     *
+     * @param t the team number
+     * @return true, if any entity of the team has moved
+     */
+    public boolean isAnyMoved(int t) {
+        for(int i = 0; i < size; i ++) {
+            if(get(i, TEAM) == t && get(i, MOVED) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks if a team is defeated: its leader or all of its
+     * entities are destroyed, i.e. at cooridinates -1, -1.
+     *
+     * @param t the team number
+     * @param leaderId the entity id of the team leader
+     * @return true, if the team is defeated
+     */
+    public boolean isDefeated(int t, int leaderId) {
+        if(isDestroyed(leaderId)) return true;
+        for(int i = 0; i < size; i ++) {
+            if(get(i, TEAM) == t && !isDestroyed(i)) return false;
+        }
+        return true;
+    }
+
+    private boolean isDestroyed(int id) {
+        return get(id, X_POS) == -1 && get(id, Y_POS) == -1;
+    }
+
+    /**
+     * Sums the current HP of all living entities of a team.
+     *
+     * @param t the team number
+     * @return the total HP
+     */
+    public int totalHP(int t) {
+        int total = 0;
+        for(int i = 0; i < size; i ++) {
+            if(get(i, TEAM) == t && !isDestroyed(i)) total += get(i, HP);
+        }
+        return total;
+    }
+}
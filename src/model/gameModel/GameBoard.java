@@ -1,7 +1,6 @@
 package model.gameModel;
 import java.util.*;
 
-import controller.GameController;
 import model.gameModel.skills.ProfessionDecorator;
 import resources.Consts;
 import java.io.*;
@@ -10,31 +9,65 @@ import java.io.*;
  * State class
  * Responsibility:
  *
- * 1. To save current state of the game
+ * 1. To save the state of the game before and after an action as
+ *    deltas: only the turn and the fields of the entities the action
+ *    touches are recorded, as primitives. Undo writes back the
+ *    values before, redo the values after.
  *
  */
 
 class State {
-	int x,y;
 	int turn;
 	int teamOnMove;
-	Entity invoker;
+	int winner;
+	int weapon; // Index of the weapon picked up by the action, or -1
+	EntityDelta invoker;
+	EntityDelta target; // null if the action has no other target
 
-	State(int x, int y, int turn, int teamOnMove, Entity invoker) {
-		// The coordinator been clicked
-		this.x = x;
-		this.y = y;
+	// The action as recorded in the journal
+	byte action;
+	int fromX, fromY, toX, toY;
 
+	// The state after the action
+	int turnAfter;
+	int teamOnMoveAfter;
+	int winnerAfter;
+	EntityDelta invokerAfter;
+	EntityDelta targetAfter;
+
+	State(int turn, int teamOnMove, int winner) {
 		// Current turn of the game
 		this.turn = turn;
 		this.teamOnMove = teamOnMove;
-
-		// The invoker entity of a command in this trun
-		this.invoker = invoker;
+		this.winner = winner;
+		this.weapon = -1;
 	}
 
 }
 
+/**
+ * EntityDelta class
+ * Responsibility:
+ *
+ * 1. To save the fields of an entity an action can change.
+ *    The entity is referred to by its team and index in the
+ *    team members, so no entity object is kept alive.
+ *
+ */
+
+class EntityDelta {
+	int team;
+	int index;
+	byte profession; // ProfessionTypes ordinal
+	int hp;
+	int maxHP;
+	int strength;
+	int agility;
+	int defense;
+	int x, y;
+	boolean moved;
+}
+
 /**
  * Created by Human v Alien Team on 2016/5/16.
  * Memento behavioral design pattern:
@@ -52,36 +85,27 @@ class State {
 
 public class GameBoard implements InvokeObserverInterface {
 
-	/** The FlyweightFactory factory instance. */
-	public static EntityFlyweightFactory fwFactory = new EntityFlyweightFactory();
+	/** The FlyweightFactory factory instance of this game. */
+	private final EntityFlyweightFactory fwFactory = new EntityFlyweightFactory();
 	
-	/** The Constant TEAM_ONE_ARRAYLIST_OBJECT_INDEX. */
-	private static final int TEAM_ONE_ARRAYLIST_OBJECT_INDEX = 0;
-	
-	/** The Constant TEAM_TWO_ARRAYLIST_OBJECT_INDEX. */
-	private static final int TEAM_TWO_ARRAYLIST_OBJECT_INDEX = 1;
-	
-	/** The Constant BOARD_SIZE_OBJECT_INDEX. */
-	private static final int BOARD_SIZE_OBJECT_INDEX = 2;
-	
-	/** The Constant TURN_COUNT_OBJECT_INDEX. */
-	private static final int TURN_COUNT_OBJECT_INDEX = 3;
-	
-	/** The Constant TEAM_ON_MOVE_OBJECT_INDEX. */
-	private static final int TEAM_ON_MOVE_OBJECT_INDEX = 4;
-	
-	/** The Constant BOARD_CELL_2DARRAY_OBJECT_INDEX. */
-	private static final int BOARD_CELL_2DARRAY_OBJECT_INDEX = 5;
-	
-	/** The Constant WEAPON_ARRAY_OBJECT_INDEX. */
-	private static final int WEAPON_ARRAY_OBJECT_INDEX = 6;
+	/** The file name of the saved game. */
+	public static final String SAVE_FILE = "saveData.ser";
+
+	/** The file name of the autosaved game, kept apart from the saved game. */
+	public static final String AUTOSAVE_FILE = "autosave.ser";
+
+	/** The file the live game state is mirrored to. */
+	public static final String LIVE_STATE_FILE = "liveState.dat";
 	
+	/** The settings of this game, with the board size of the last restored snapshot. */
+	private GameSettings settings;
+
 	/** The num of weapons. */
 	//board has 20? weapons at start
-	private final int NUM_WEAPONS = Consts.NUM_WEAPONS;
+	private final int NUM_WEAPONS;
 	
 	/** The board size. */
-	private final int BSIZE = Consts.getBSIZE(); //board size.
+	private int BSIZE; //board size.
 
 	/** The turn count. */
 	private int turn;
@@ -97,31 +121,89 @@ public class GameBoard implements InvokeObserverInterface {
 	
 	/** The board contains weapons. */
 	//Board variables
-	private Weapon[] boardWeapons = new Weapon[NUM_WEAPONS];
+	private Weapon[] boardWeapons;
 
 	/** The Constant DIST. */
 	//radius of squares to generate pieces around leader (5x5 grid) - 1
 	private final static int DIST = Consts.DIST;
+
+	/** The Constant MAX_DISPATCH_ATTEMPTS. */
+	//number of random spots tried to find a clear grid for the alien team
+	private final static int MAX_DISPATCH_ATTEMPTS = 1000;
 	
-	/** The controller reference. */
-	private GameController controller;
+	/** The listener of game events, e.g. the game controller. */
+	private GameListenerInterface controller;
+
+	/** The winning team number, -1 while the game is running. */
+	private int winner = -1;
 
 	/** The ObservationSubject instance */
 	private ObservationSubject observationSubject;
 	
 	/** The game board. */
-	public static BoardCell[][] gameBoard;
+	private ChunkedBoard gameBoard;
+
+	/** The background writer of saved games, null to save on the calling thread. */
+	private SaveGameWriter saveWriter;
+
+	/** The background writer of autosaves, null to disable autosave. */
+	private SaveGameWriter autoSaveWriter;
+
+	/** The number of turns between autosaves, 0 to disable autosave. */
+	private int autoSaveTurns;
+
+	/** The memory-mapped mirror of the game state, null if there is none. */
+	private LiveStateFile liveState;
+
+	/** The journal of actions, null if actions are not recorded. */
+	private CommandJournal journal;
+
+	/** The listener answering weapon pick ups while actions are replayed. */
+	private ReplayListener replayListener;
+
+	/** Whether the last move picked up a weapon. */
+	private boolean pickedUp;
+
+	/** The seed the tiles are picked from, the one of the settings unless a snapshot was restored. */
+	private long tileSeed;
+
+	/** The source of the random choices of the board setup, seeded by the settings. */
+	private final Random random;
 
+	/** The cells the last selected piece can move to. */
+	private ReachabilityField moveRange;
+
+	private TargetSet targets;
+
+
+	/**
+	 * Instantiates a new game board.
+	 * Pass a HeadlessGameListener to run a game without user interface.
+	 *
+	 * @param controller the listener of game events
+	 */
+	public GameBoard(GameListenerInterface controller) {
+		this(controller, GameSettings.fromConsts());
+	}
 
 	/**
 	 * Instantiates a new game board.
+	 * All state of the game is held by this instance, so several
+	 * game boards can be played at the same time.
 	 *
-	 * @param controller the game controller reference
+	 * @param controller the listener of game events
+	 * @param settings the settings of this game
 	 */
-	public GameBoard(GameController controller) {
+	public GameBoard(GameListenerInterface controller, GameSettings settings) {
+		this.settings = settings;
+		this.random = new Random(settings.getSeed());
+		this.tileSeed = settings.getSeed();
+		NUM_WEAPONS = settings.getNumWeapons();
+		BSIZE = settings.getBoardSize();
+		boardWeapons = new Weapon[NUM_WEAPONS];
 		turn = 0;
 		teamOnMove = 0;
-		state = new State(0 ,0 ,turn, 0, null);
+		state = new State(turn, teamOnMove, winner);
 		this.controller = controller;
 		observationSubject = new ObservationSubject();
 		observationSubject.addObserver(this);
@@ -143,19 +225,14 @@ public class GameBoard implements InvokeObserverInterface {
 	 * Generate board.
 	 */
 	private void generateBoard(){
-		gameBoard = new BoardCell[BSIZE][BSIZE];
-		for(int i=0; i<gameBoard[0].length; i++){
-			for(int j=0; j<gameBoard[1].length; j++){
-				gameBoard[i][j] = new BoardCell();
-			}
-		}
+		gameBoard = new ChunkedBoard(BSIZE, tileSeed);
 	}
 	
 	/**
 	 * Generate pieces.
 	 */
 	private void generatePieces(){
-        teamManager = new TeamManager();
+        teamManager = new TeamManager(settings, fwFactory);
 	}
 	
 	/**
@@ -164,8 +241,7 @@ public class GameBoard implements InvokeObserverInterface {
 	private void generateWeapons(){
 		for(int i=0; i<boardWeapons.length; i++){
 			//create weapons and place on board
-			Random rand = new Random();
-			int num = rand.nextInt(6);
+			int num = random.nextInt(6);
 			Weapon weapon = null;
 			weapon = new Weapon(num);
 			boardWeapons[i] = weapon;
@@ -176,18 +252,17 @@ public class GameBoard implements InvokeObserverInterface {
 	 * Dispatch weapons.
 	 */
 	private void dispatchWeapons(){
-		Random rand = new Random();
 		int x; //xPos of weapon
 		int y; //yPos of weapon
 		//set weapons to board square
 		for(int i=0; i<boardWeapons.length; i++){
 			//check if square in empty
 			do {
-				x = rand.nextInt(BSIZE);
-				y = rand.nextInt(BSIZE);
-			} while (gameBoard[x][y].getEntity() != null
-					|| gameBoard[x][y].getWeapon() != null);
-			gameBoard[x][y].setWeapon(boardWeapons[i]);
+				x = random.nextInt(BSIZE);
+				y = random.nextInt(BSIZE);
+			} while (gameBoard.getEntity(x, y) != null
+					|| gameBoard.getWeapon(x, y) != null);
+			gameBoard.setWeapon(x, y, boardWeapons[i]);
 			boardWeapons[i].setPos(x,y);
 		}
 	}
@@ -204,13 +279,98 @@ public class GameBoard implements InvokeObserverInterface {
 
 	/**
 	 * Gets the board cell.
+	 * A new BoardCell is created per call, the game logic reads and
+	 * writes the cells through the ChunkedBoard instead.
 	 *
 	 * @param x the x coordinate on game board
 	 * @param y the y coordinate on game board
 	 * @return the board cell
 	 */
 	public BoardCell getBoardCell(int x, int y) {
-		return gameBoard[x][y];
+		return new BoardCell(gameBoard, x, y);
+	}
+
+	/**
+	 * Gets the entity in a cell, without a board cell.
+	 *
+	 * @param x the x coordinate on game board
+	 * @param y the y coordinate on game board
+	 * @return the entity, or null
+	 */
+	public Entity getEntity(int x, int y) {
+		return gameBoard.getEntity(x, y);
+	}
+
+	/**
+	 * Gets the weapon in a cell, without a board cell.
+	 *
+	 * @param x the x coordinate on game board
+	 * @param y the y coordinate on game board
+	 * @return the weapon, or null
+	 */
+	public Weapon getWeapon(int x, int y) {
+		return gameBoard.getWeapon(x, y);
+	}
+
+	/**
+	 * Gets the cells a piece can move to.
+	 * The returned field is reused by the next call.
+	 *
+	 * @param x the x of the piece
+	 * @param y the y of the piece
+	 * @return the move range, with the cell of the piece at distance 0
+	 */
+	public ReachabilityField getMoveRange(int x, int y) {
+		if(moveRange == null) {
+			moveRange = new ReachabilityField(BSIZE);
+		}
+		Entity e = gameBoard.getEntity(x, y);
+		int steps = e == null ? 0 : e.calculateSteps(Consts.INIT_STEPS);
+		moveRange.compute(teamManager.getOccupancy(), x, y, steps);
+		return moveRange;
+	}
+
+	/**
+	 * Gets the pieces the piece on a cell can attack.
+	 * The returned set is reused by the next call.
+	 *
+	 * @param x the x of the piece
+	 * @param y the y of the piece
+	 * @return the targets, the hostile pieces next to the piece
+	 */
+	public TargetSet getAttackTargets(int x, int y) {
+		if(targets == null) {
+			targets = new TargetSet();
+		}
+		Entity e = gameBoard.getEntity(x, y);
+		if(e == null) return clearTargets();
+		targets.compute(teamManager, e, Consts.ATTACK_RANGE, false);
+		return targets;
+	}
+
+	/**
+	 * Gets the pieces the piece on a cell can invoke its skill on.
+	 * Pieces without a skill have no targets.
+	 * The returned set is reused by the next call.
+	 *
+	 * @param x the x of the piece
+	 * @param y the y of the piece
+	 * @return the targets, friendly or hostile depending on the skill
+	 */
+	public TargetSet getInvokeTargets(int x, int y) {
+		if(targets == null) {
+			targets = new TargetSet();
+		}
+		Entity e = gameBoard.getEntity(x, y);
+		if(!(e instanceof ProfessionDecorator)) return clearTargets();
+		boolean friendly = ((ProfessionDecorator) e).isFriendlySkill();
+		targets.compute(teamManager, e, e.getAttackRange(), friendly);
+		return targets;
+	}
+
+	private TargetSet clearTargets() {
+		targets.clear();
+		return targets;
 	}
 
 	/**
@@ -222,12 +382,16 @@ public class GameBoard implements InvokeObserverInterface {
 	 * @param yd destination y
 	 */
 	public void movePieceTo(int xo, int yo, int xd, int yd) {
-		Entity t = getBoardCell(xo, yo).getEntity();
+		Entity t = gameBoard.getEntity(xo, yo);
+		saveState(t, null);
 		t.moveTo(t, xd, yd);
-		saveState(xo, yo, t);
-		updateBoard();
+		syncBoard();
+		pickedUp = false;
 		if(t.isUpgradable()) checkWeapon(xd, yd);
+		record(CommandJournal.MOVE, xo, yo, xd, yd);
         checkTurn();
+		finishState();
+		publishLiveState();
 
 	}
 
@@ -238,15 +402,30 @@ public class GameBoard implements InvokeObserverInterface {
 	 * @param recipient the recipient who being attacked
 	 */
 	public void combat(Entity attacker, Point recipient) {
+		combat(attacker, recipient.x, recipient.y);
+	}
+
+	/**
+	 * Combat.
+	 *
+	 * @param attacker the attacker who making attack
+	 * @param x the x of the recipient who being attacked
+	 * @param y the y of the recipient who being attacked
+	 */
+	public void combat(Entity attacker, int x, int y) {
 		// TODO: to call attack function of attacker and apply attacking to those recipients
-		Entity t = getBoardCell(recipient.x, recipient.y).getEntity();
+		Entity t = gameBoard.getEntity(x, y);
 		if(t == null) return;
+		saveState(attacker, t);
 		attacker.attack(t, observationSubject);
-		saveState(-1, -1, attacker);
+		teamManager.getOccupancy().markDirty(x, y);
+		record(CommandJournal.ATTACK, attacker.getXPos(), attacker.getYPos(), x, y);
 		if(t.getCurrentHP() <= 0) {
-			destroyEntity(recipient.x, recipient.y);
+			destroyEntity(x, y);
 		}
 		checkTurn();
+		finishState();
+		publishLiveState();
 	}
 
 	/**
@@ -256,15 +435,30 @@ public class GameBoard implements InvokeObserverInterface {
 	 * @param recipient the recipient who being attacked
 	 */
 	public void invoke(ProfessionDecorator attacker, Point recipient) {
+		invoke(attacker, recipient.x, recipient.y);
+	}
+
+	/**
+	 * Invoke.
+	 *
+	 * @param attacker the attacker who making attack
+	 * @param x the x of the recipient who being attacked
+	 * @param y the y of the recipient who being attacked
+	 */
+	public void invoke(ProfessionDecorator attacker, int x, int y) {
 		// TODO: to call invoke function of attacker and apply skill attack to those recipients
-		Entity t = getBoardCell(recipient.x, recipient.y).getEntity();
+		Entity t = gameBoard.getEntity(x, y);
 		if(t == null) return;
+		saveState(attacker, t);
 		attacker.invoke(t, observationSubject);
-		saveState(-1, -1, attacker);
+		teamManager.getOccupancy().markDirty(x, y);
+		record(CommandJournal.INVOKE, attacker.getXPos(), attacker.getYPos(), x, y);
 		if(t.getCurrentHP() <= 0) {
-			destroyEntity(recipient.x, recipient.y);
+			destroyEntity(x, y);
 		}
 		checkTurn();
+		finishState();
+		publishLiveState();
 	}
 
 	/**
@@ -275,11 +469,10 @@ public class GameBoard implements InvokeObserverInterface {
 	 * @param y the y
 	 */
 	private void destroyEntity(int x, int y) {
-		BoardCell cell = getBoardCell(x, y);
-		Entity e = cell.getEntity();
+		Entity e = gameBoard.getEntity(x, y);
 		e.setPos(-1, -1);
 		checkWin();
-		updateBoard();
+		syncBoard();
 	}
 
 	/**
@@ -298,26 +491,14 @@ public class GameBoard implements InvokeObserverInterface {
 	private void dispatchHumanTeam(){
 		//SET HUMAN TEAM POSITIONS
 		//Set Commander position
-		Random rand = new Random();
-		int x = rand.nextInt(BSIZE-DIST-1) + (DIST/2);
-        int y = rand.nextInt(BSIZE-DIST-1) + (DIST/2);
+		int x = random.nextInt(BSIZE-DIST-1) + (DIST/2);
+        int y = random.nextInt(BSIZE-DIST-1) + (DIST/2);
 		Team team = teamManager.getTeam(0);
-		getBoardCell(x, y).setEntity(team.get(0));
+		gameBoard.setEntity(x, y, team.get(0));
 		team.get(0).setPos(x,y);
 
 		//Set all other human pieces
-		for(int i=1; i<team.size(); i++){
-			int a, b;
-			//find an available square around leader (within 5x5 grid)
-			do {
-				a = rand.nextInt(DIST) + x - (DIST/2);
-				b = rand.nextInt(DIST) + y - (DIST/2);
-			} while( a >= BSIZE || b >= BSIZE || a < 0 || b < 0
-					|| getBoardCell(a, b).getEntity() != null);
-			//set piece to that square
-			getBoardCell(a, b).setEntity(team.get(i));
-			team.get(i).setPos(a,b);
-		}
+		dispatchAroundLeader(team, x, y);
 	}
 
 	/**
@@ -327,62 +508,152 @@ public class GameBoard implements InvokeObserverInterface {
 		//SET ALIEN TEAM POSITIONS
 		//Set Chief position and check there is clear space of 5x5 grid
 		//around chief
-		Random rand = new Random();
 		int x;	//xPos of chief
 		int y;	//yPos of chief
-		int clearSquares = 0; //number of empty squares around chief
+		int clearSquares; //number of empty squares around chief
+		int attempts = 0;
 		//check for clear space around Chief
 		do {
-			x = rand.nextInt(BSIZE-DIST-1) + (DIST/2);
-			y = rand.nextInt(BSIZE-DIST-1) + (DIST/2);
+			x = random.nextInt(BSIZE-DIST-1) + (DIST/2);
+			y = random.nextInt(BSIZE-DIST-1) + (DIST/2);
+			clearSquares = 0;
+			attempts ++;
 			for(int k=x-(DIST/2); k<x+(DIST/2); k++){
-				for(int l=x-(DIST/2); l<x+(DIST/2); l++){
-					//this square is occupied by Chief - count as empty square
-					if(k==x && l==y){
-						clearSquares++;
-					} //this square is outside the grid IndexOutOfBounds
-					else if(k<0 || l<0 || k>=BSIZE || l>=BSIZE){
+				for(int l=y-(DIST/2); l<y+(DIST/2); l++){
+					//this square is outside the grid IndexOutOfBounds
+					if(k<0 || l<0 || k>=BSIZE || l>=BSIZE){
 						continue;
 					} //valid square for checking if has entity already
 					else {
 						//square is not occupied
-						if(getBoardCell(k, l).getEntity() == null){
+						if(gameBoard.getEntity(k, l) == null){
 							clearSquares++;
 						}
 					}
 				}
 			}
-		} while(clearSquares<((DIST+1)*(DIST+1)));	//5x5 grid is empty
+			// Chief never shares a square; on a crowded board give up
+			// waiting for a fully clear grid after MAX_DISPATCH_ATTEMPTS
+		} while((gameBoard.getEntity(x, y) != null || clearSquares<(DIST*DIST))	//4x4 grid is empty
+				&& attempts<MAX_DISPATCH_ATTEMPTS);
+		if(!isFreeSquare(x, y)){
+			int[] square = nearestFreeSquare(x, y);
+			x = square[0];
+			y = square[1];
+		}
 
 		Team team = teamManager.getTeam(1);
 		//set Chief position
-		getBoardCell(x, y).setEntity(team.get(0));
+		gameBoard.setEntity(x, y, team.get(0));
 		team.get(0).setPos(x,y);
-		//Set all other human pieces
+		//Set all other alien pieces
+		dispatchAroundLeader(team, x, y);
+	}
+
+	/**
+	 * Dispatch the pieces of a team around its leader.
+	 * The pieces are spread at random over a DIST x DIST grid around the
+	 * leader, widened for teams that do not fit in it. A piece that finds
+	 * no free square there in MAX_DISPATCH_ATTEMPTS takes the nearest one.
+	 *
+	 * @param team the team, whose leader is placed already
+	 * @param x the x coordinate of the leader
+	 * @param y the y coordinate of the leader
+	 */
+	private void dispatchAroundLeader(Team team, int x, int y){
+		int side = DIST;
+		while(side * side < team.size()){
+			side ++;
+		}
 		for(int i=1; i<team.size(); i++){
 			int a, b;
-			//find an available square around leader (within 5x5 grid)
+			int attempts = 0;
+			//find an available square around leader
 			do {
-				a = rand.nextInt(DIST) + x - (DIST/2);
-				b = rand.nextInt(DIST) + y - (DIST/2);
-			} while(a >= BSIZE || b >= BSIZE || a < 0 || b < 0
-					|| getBoardCell(a, b).getEntity() != null);
+				a = random.nextInt(side) + x - (side/2);
+				b = random.nextInt(side) + y - (side/2);
+				attempts ++;
+			} while(!isFreeSquare(a, b) && attempts<MAX_DISPATCH_ATTEMPTS);
+			if(!isFreeSquare(a, b)){
+				int[] square = nearestFreeSquare(x, y);
+				a = square[0];
+				b = square[1];
+			}
 			//set piece to that square
-			getBoardCell(a, b).setEntity(team.get(i));
+			gameBoard.setEntity(a, b, team.get(i));
 			team.get(i).setPos(a,b);
 		}
 	}
 
+	/**
+	 * Checks if a square is on the board and has no piece.
+	 *
+	 * @param x the x coordinate on game board
+	 * @param y the y coordinate on game board
+	 * @return true, if the square is free
+	 */
+	private boolean isFreeSquare(int x, int y){
+		return x >= 0 && y >= 0 && x < BSIZE && y < BSIZE
+				&& gameBoard.getEntity(x, y) == null;
+	}
+
+	/**
+	 * Finds the free square nearest to a square, searching rings of
+	 * growing distance around it. GameSettings makes sure all pieces fit
+	 * on the board, so there is one.
+	 *
+	 * @param x the x coordinate on game board
+	 * @param y the y coordinate on game board
+	 * @return the x and y coordinates of the free square
+	 */
+	private int[] nearestFreeSquare(int x, int y){
+		for(int r=0; r<BSIZE; r++){
+			//top and bottom rows of the ring
+			for(int a=x-r; a<=x+r; a++){
+				if(isFreeSquare(a, y-r)) return new int[] {a, y-r};
+				if(isFreeSquare(a, y+r)) return new int[] {a, y+r};
+			}
+			//left and right columns of the ring
+			for(int b=y-r+1; b<y+r; b++){
+				if(isFreeSquare(x-r, b)) return new int[] {x-r, b};
+				if(isFreeSquare(x+r, b)) return new int[] {x+r, b};
+			}
+		}
+		throw new IllegalStateException("No free square on the board");
+	}
+
 	/**
 	 * Update pieces on the game board.
 	 */
 	public  void updateBoard() {
-		for(int i=0; i<BSIZE; i++){
-			for(int j=0; j<BSIZE; j++){
-				Entity e = teamManager.getEntityByXY(i, j);
-				gameBoard[i][j].setEntity(e);
+		// Only the cells of the pieces are written, the rest of the
+		// board stays unallocated
+		gameBoard.clearEntities();
+		for(int t=0; t<Consts.NUM_TEAMS; t++){
+			for(Entity e: teamManager.getTeam(t).getMembers()){
+				Entity occupant = teamManager.getEntityByXY(e.getXPos(), e.getYPos());
+				if(occupant != null) gameBoard.setEntity(e.getXPos(), e.getYPos(), occupant);
 			}
 		}
+		teamManager.getOccupancy().clearDirty();
+	}
+
+	/**
+	 * Synchronise the game board with the pieces.
+	 * Only the cells changed since the last synchronisation are
+	 * rewritten, so the cost grows with the number of changed
+	 * cells instead of the board area.
+	 */
+	public void syncBoard() {
+		OccupancyGrid occupancy = teamManager.getOccupancy();
+		int size = occupancy.size();
+		for(int i=0; i<occupancy.getDirtyCount(); i++){
+			int cell = occupancy.getDirtyCell(i);
+			int x = cell / size;
+			int y = cell % size;
+			gameBoard.setEntity(x, y, occupancy.get(x, y));
+		}
+		occupancy.clearDirty();
 	}
 
 	/**
@@ -394,9 +665,9 @@ public class GameBoard implements InvokeObserverInterface {
 		String[][] consoleBoard = new String[BSIZE][BSIZE];
 		for(int i=0; i<BSIZE; i++){
 			for(int j=0; j<BSIZE; j++){
-				if(getBoardCell(i, j).getEntity() != null){
+				if(gameBoard.getEntity(i, j) != null){
 					consoleBoard[i][j] = " E ";
-				} else if(getBoardCell(i, j).getWeapon() != null){
+				} else if(gameBoard.getWeapon(i, j) != null){
 					consoleBoard[i][j] = " W ";
 				} else { consoleBoard[i][j] = " . "; }
 			}
@@ -421,7 +692,7 @@ public class GameBoard implements InvokeObserverInterface {
         final int team = getTeamOnMove();
         if(teamManager.isTeamsTurnFinished(team)) {
             teamManager.resetTeamMoved(team);
-            nextTurn();
+            advanceTurn();
         }
     }
 
@@ -432,20 +703,255 @@ public class GameBoard implements InvokeObserverInterface {
 	private void checkWin() {
 		final int team = 1 - getTeamOnMove();
 		if(teamManager.isTeamDefeated(team)) {
+			winner = getTeamOnMove();
 			controller.teamWin();
 		}
 	}
 
 	/**
-	 * Give turn to next team.
+	 * Gets the winning team.
+	 *
+	 * @return the winning team number, or -1 if no team has won yet
+	 */
+	public int getWinner() {
+		return winner;
+	}
+
+	/**
+	 * Gets the turn count.
+	 *
+	 * @return the turn count
+	 */
+	public int getTurn() {
+		return turn;
+	}
+
+	/**
+	 * Gets the settings of this game.
+	 *
+	 * @return the game settings
+	 */
+	public GameSettings getSettings() {
+		return settings;
+	}
+
+	/**
+	 * Gets the seed the tiles of the board are picked from. It is the
+	 * seed of the settings, or the one of the last restored snapshot.
+	 *
+	 * @return the tile seed
+	 */
+	public long getTileSeed() {
+		return tileSeed;
+	}
+
+	/**
+	 * Gets the team manager.
+	 *
+	 * @return the team manager
+	 */
+	public TeamManager getTeamManager() {
+		return teamManager;
+	}
+
+	/**
+	 * Give turn to next team without any action of the team on move.
 	 */
 	public void nextTurn() {
+		record(CommandJournal.PASS, -1, -1, -1, -1);
+		advanceTurn();
+		publishLiveState();
+	}
+
+	/**
+	 * Give turn to next team.
+	 */
+	private void advanceTurn() {
 		turn ++;
 		teamOnMove ++;
 		teamOnMove %= Consts.NUM_TEAMS;
 		// Reset moved flag of all pieces in a team
 		teamManager.resetTeamMoved(getTeamOnMove());
+		if(autoSaveWriter != null && autoSaveTurns > 0 && turn % autoSaveTurns == 0) {
+			autoSaveWriter.submit(createSnapshot());
+		}
+		if(journal != null && replayListener == null && journal.isSnapshotDue(turn)) {
+			journal.addSnapshot(createSnapshot());
+		}
+		controller.switchTurn();
+	}
+
+	/**
+	 * Starts recording the actions of this game in a journal,
+	 * with a snapshot of the current state as starting point.
+	 *
+	 * @param snapshotTurns the number of turns between snapshots
+	 */
+	public void enableJournal(int snapshotTurns) {
+		journal = new CommandJournal(snapshotTurns);
+		journal.addSnapshot(createSnapshot());
+	}
+
+	/**
+	 * Gets the journal of actions.
+	 *
+	 * @return the journal, or null if actions are not recorded
+	 */
+	public CommandJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Records an action in the journal.
+	 * An action made after jumping back to an earlier turn
+	 * discards the actions recorded after it.
+	 */
+	private void record(byte type, int fx, int fy, int tx, int ty) {
+		if(type != CommandJournal.PASS) {
+			state.action = type;
+			state.fromX = fx;
+			state.fromY = fy;
+			state.toX = tx;
+			state.toY = ty;
+		}
+		if(journal == null || replayListener != null) return;
+		if(journal.getLastTurn() >= turn) {
+			journal.truncate(turn);
+		}
+		// Only a move picks up a weapon, pickedUp is stale for the other actions
+		journal.record(turn, type, fx, fy, tx, ty, type == CommandJournal.MOVE && pickedUp);
+	}
+
+	/**
+	 * Jumps to the start of a turn recorded in the journal.
+	 * The latest snapshot before that turn is restored and the actions
+	 * after it are replayed, which are fewer than the snapshot interval.
+	 * Replayed actions make no sounds or messages, and weapons are
+	 * picked up as recorded.
+	 *
+	 * @param target the turn count to jump to
+	 * @return the turn reached, which is less than target if the journal ends before
+	 */
+	public int jumpToTurn(int target) {
+		if(journal == null) return turn;
+		int i = journal.findSnapshot(target);
+		if(i < 0) return turn;
+
+		GameListenerInterface listener = controller;
+		replayListener = new ReplayListener();
+		controller = replayListener;
+		try {
+			restoreSnapshot(journal.getSnapshot(i));
+			for(int a = journal.getSnapshotAction(i); a < journal.size() && journal.getTurn(a) < target; a ++) {
+				replay(a);
+			}
+		} finally {
+			controller = listener;
+			replayListener = null;
+		}
 		controller.switchTurn();
+		return turn;
+	}
+
+	/**
+	 * Replays an action of the journal.
+	 *
+	 * @param a the action number
+	 */
+	private void replay(int a) {
+		int fx = journal.getFromX(a);
+		int fy = journal.getFromY(a);
+		int tx = journal.getToX(a);
+		int ty = journal.getToY(a);
+		replayListener.pickUp = journal.isPickUp(a);
+		switch(journal.getType(a)) {
+			case CommandJournal.MOVE:
+				movePieceTo(fx, fy, tx, ty);
+				break;
+			case CommandJournal.ATTACK:
+				combat(gameBoard.getEntity(fx, fy), tx, ty);
+				break;
+			case CommandJournal.INVOKE:
+				invoke((ProfessionDecorator) gameBoard.getEntity(fx, fy), tx, ty);
+				break;
+			default:
+				advanceTurn();
+				break;
+		}
+	}
+
+	/**
+	 * Listener of replayed actions: weapons are picked up as recorded,
+	 * other game events are ignored.
+	 */
+	private static class ReplayListener implements GameListenerInterface {
+
+		/** Whether the replayed move picked up a weapon. */
+		boolean pickUp;
+
+		@Override
+		public void switchTurn() {}
+
+		@Override
+		public void teamWin() {}
+
+		@Override
+		public boolean foundWeapon(String weaponName) {
+			return pickUp;
+		}
+
+		@Override
+		public void setAttack(String type) {}
+
+		@Override
+		public void showSavingVerbose() {}
+	}
+
+	/**
+	 * Sets the background writer of saved games.
+	 * Saving then only takes a snapshot on the calling thread.
+	 *
+	 * @param writer the save game writer, or null to save on the calling thread
+	 */
+	public void setSaveWriter(SaveGameWriter writer) {
+		this.saveWriter = writer;
+	}
+
+	/**
+	 * Sets the background writer of autosaves.
+	 * Autosaves go to their own file so they never replace a saved game.
+	 *
+	 * @param writer the autosave writer, or null to disable autosave
+	 * @param autoSaveTurns the number of turns between autosaves, 0 to disable autosave
+	 */
+	public void setAutoSaveWriter(SaveGameWriter writer, int autoSaveTurns) {
+		this.autoSaveWriter = writer;
+		this.autoSaveTurns = autoSaveTurns;
+	}
+
+	/**
+	 * Sets the memory-mapped mirror of the game state, e.g. for an
+	 * external dashboard. It is updated after every action.
+	 *
+	 * @param liveState the live state file, or null to stop mirroring
+	 */
+	public void setLiveState(LiveStateFile liveState) {
+		this.liveState = liveState;
+		publishLiveState();
+	}
+
+	/**
+	 * Copies the game state into the live state file, if there is one.
+	 * A file that can not be written is given up, play goes on.
+	 */
+	private void publishLiveState() {
+		if(liveState == null) return;
+		try {
+			liveState.publish(this);
+		} catch (IOException e) {
+			e.printStackTrace();
+			liveState = null;
+		}
 	}
 
 	/**
@@ -461,6 +967,7 @@ public class GameBoard implements InvokeObserverInterface {
 		// Reset moved flag of all pieces in a team
 		teamManager.resetTeamMoved(teamOnMove);
 		controller.switchTurn();
+		publishLiveState();
 	}
 
 	/**
@@ -471,16 +978,18 @@ public class GameBoard implements InvokeObserverInterface {
 	 * @param y the y
 	 */
 	private void checkWeapon(int x, int y) {
-		Weapon weapon = getBoardCell(x, y).getWeapon();
+		Weapon weapon = gameBoard.getWeapon(x, y);
 
 		if(weapon!=null) {
-			Entity target = gameBoard[x][y].getEntity();
+			Entity target = gameBoard.getEntity(x, y);
 			if(controller.foundWeapon(weapon.getName())) {
-				Entity ne = ProfessionManager.changeProfession(target, weapon.getType());
+				pickedUp = true;
+				state.weapon = Arrays.asList(boardWeapons).indexOf(weapon);
+				Entity ne = ProfessionManager.changeProfession(fwFactory, target, weapon.getType());
 				//System.out.println(ne.getClass());
 				teamManager.setEntityByXY(x, y, ne);
-				getBoardCell(x, y).clearWeapon();
-				updateBoard();
+				gameBoard.setWeapon(x, y, null);
+				syncBoard();
 			}
 		}
 	}
@@ -532,66 +1041,164 @@ public class GameBoard implements InvokeObserverInterface {
 		}
 	}
 
+	/**
+	 * Redo memento.
+	 * Re-applies the state after the action of an undone memento.
+	 *
+	 * @param memento the memento
+	 */
+	public void redoMemento(MementoInterface memento){
+		if(memento != null) {
+			Memento aMemento = (Memento) memento;
+			this.setRedoState(aMemento.getState());
+		}
+	}
+
 	/**
 	 * Sets the current game state.
 	 *
 	 * @param state the new state
 	 */
 	public void setState(State state){
-		int x,y;
+		this.state = state;
+		applyEntity(state.invoker, -1);
+		if(state.target != null) {
+			applyEntity(state.target, -1);
+		}
+		// Put a picked up weapon back on the board
+		if(state.weapon >= 0) {
+			Weapon weapon = boardWeapons[state.weapon];
+			gameBoard.setWeapon(weapon.getXPos(), weapon.getYPos(), weapon);
+		}
+		winner = state.winner;
 
+		setTurn(state.turn, state.teamOnMove);
+		syncBoard();
+		// The undone action is no longer part of the game
+		if(journal != null) {
+			journal.truncate(state.turn);
+		}
+	}
+
+	/**
+	 * Sets the game state after an undone action again.
+	 * The recorded values are written back, the game logic of
+	 * the action is not run again.
+	 *
+	 * @param state the state of the undone action
+	 */
+	private void setRedoState(State state){
 		this.state = state;
-		Entity invoker = this.state.invoker;
-		x = this.state.x;
-		y = this.state.y;
-		// Call undo method
-		this.state.invoker.undoLastInvoke();
-		// Set cloned entity from its previous state to current position
-		// For handling convertion between basic unit and advanced unit
-		//
-		Entity e = teamManager.getEntityByName(this.state.invoker.getName());
-		if(invoker.getClass() != e.getClass()) {
-			Entity inner = ((ProfessionDecorator)e).getEntity();
-			inner.setProfessionName(invoker.getProfessionName());
-			inner.setCurrentHP(invoker.getCurrentHP());
-			inner.setPos(x, y);
-			inner.setMaxHP(invoker.getMaxHP());
-			inner.setStrength(invoker.getStrength());
-			inner.setAgility(invoker.getAgility());
-			inner.setDefense(invoker.getDefense());
-			inner.setUpgradable(invoker.isUpgradable());
-			inner.setAttackName(invoker.getAttackName());
-			inner.setDescription(invoker.getDescription());
-			teamManager.setEntityByXY(x, y, ((ProfessionDecorator)e).getEntity());
-		}
-
-		setTurn(this.state.turn, this.state.teamOnMove);
-		updateBoard();
+		// The board is back at the turn of the action, it joins the journal again
+		turn = state.turn;
+		teamOnMove = state.teamOnMove;
+		// The journal replays a pick up only if it was recorded as one
+		pickedUp = state.weapon >= 0;
+		record(state.action, state.fromX, state.fromY, state.toX, state.toY);
+
+		applyEntity(state.invokerAfter, state.weapon);
+		if(state.targetAfter != null) {
+			applyEntity(state.targetAfter, -1);
+		}
+		if(state.weapon >= 0) {
+			Weapon weapon = boardWeapons[state.weapon];
+			gameBoard.setWeapon(weapon.getXPos(), weapon.getYPos(), null);
+		}
+		winner = state.winnerAfter;
+
+		setTurn(state.turnAfter, state.teamOnMoveAfter);
+		syncBoard();
+		if(journal != null && state.turnAfter != state.turn && journal.isSnapshotDue(state.turnAfter)) {
+			journal.addSnapshot(createSnapshot());
+		}
 	}
 
 	/**
 	 * Save state.
+	 * Records the fields of the entities an action is about to change.
 	 *
-	 * @param x the x cooridinate
-	 * @param y the y cooridinate
-	 * @param entity the entity
-	 */
-	public void saveState(int x, int y, Entity entity) {
-		this.state.x = x;
-		this.state.y = y;
-		this.state.turn = this.turn;
-		this.state.teamOnMove = this.teamOnMove;
-		// Prototype pattern:
-		// Here we make a good use of prototype pattern
-		// We make a clone from a entity in case it changes class after
-		// it been moved.
-		try {
-			Point p = new Point(x, y);
-			this.state.invoker = (Entity) entity.clone();
-		} catch (IndexOutOfBoundsException e) {
-			this.state.invoker = entity;
+	 * @param invoker the entity making the action
+	 * @param target the target of the action, or null
+	 */
+	private void saveState(Entity invoker, Entity target) {
+		state = new State(turn, teamOnMove, winner);
+		state.invoker = saveEntity(invoker);
+		if(target != null && target != invoker) {
+			state.target = saveEntity(target);
+		}
+	}
+
+	/**
+	 * Finish state.
+	 * Records the fields of the entities the action has changed.
+	 */
+	private void finishState() {
+		state.turnAfter = turn;
+		state.teamOnMoveAfter = teamOnMove;
+		state.winnerAfter = winner;
+		state.invokerAfter = saveEntity(teamManager.getTeam(state.invoker.team).get(state.invoker.index));
+		if(state.target != null) {
+			state.targetAfter = saveEntity(teamManager.getTeam(state.target.team).get(state.target.index));
 		}
+	}
+
+	/**
+	 * Saves the fields of an entity an action can change.
+	 *
+	 * @param e the entity
+	 * @return the entity delta
+	 */
+	private EntityDelta saveEntity(Entity e) {
+		EntityDelta d = new EntityDelta();
+		d.team = e.getTeam();
+		d.index = teamManager.getTeam(d.team).getMembers().indexOf(e);
+		d.profession = (byte) ProfessionTypes.fromCharacterName(e.getProfessionName()).ordinal();
+		d.hp = e.getCurrentHP();
+		d.maxHP = e.getMaxHP();
+		d.strength = e.getStrength();
+		d.agility = e.getAgility();
+		d.defense = e.getDefense();
+		d.x = e.getXPos();
+		d.y = e.getYPos();
+		d.moved = e.isMoved();
+		return d;
+	}
 
+	/**
+	 * Writes the saved fields back to an entity.
+	 * An entity upgraded by an undone action turns back into its
+	 * basic unit, and a basic unit is upgraded again by a redone one.
+	 *
+	 * @param d the entity delta
+	 * @param weapon the index of the weapon upgrading the entity, or -1
+	 */
+	private void applyEntity(EntityDelta d, int weapon) {
+		Entity e = teamManager.getTeam(d.team).get(d.index);
+		ProfessionTypes type = ProfessionTypes.values()[d.profession];
+		if(weapon >= 0 && !(e instanceof ProfessionDecorator)) {
+			Entity ne = ProfessionManager.changeProfession(fwFactory, e, boardWeapons[weapon].getType());
+			teamManager.setEntityByXY(e.getXPos(), e.getYPos(), ne);
+			e = ne;
+		} else if(!type.getCharacterName().equals(e.getProfessionName())) {
+			// The decorator wrote its own profession into the basic unit,
+			// the prototype has the original one
+			Entity inner = ((ProfessionDecorator) e).getEntity();
+			Entity basic = fwFactory.createEntity(type);
+			inner.setProfessionName(basic.getProfessionName());
+			inner.setDescription(basic.getDescription());
+			inner.setAttackName(basic.getAttackName());
+			inner.setAttackRange(basic.getAttackRange());
+			teamManager.setEntityByXY(e.getXPos(), e.getYPos(), inner);
+			e = inner;
+		}
+		e.setCurrentHP(d.hp);
+		e.setMaxHP(d.maxHP);
+		e.setStrength(d.strength);
+		e.setAgility(d.agility);
+		e.setDefense(d.defense);
+		e.setPos(d.x, d.y);
+		if(d.moved) e.setMoved();
+		else e.unsetMoved();
 	}
 
 	/**
@@ -616,11 +1223,13 @@ public class GameBoard implements InvokeObserverInterface {
 		
 		/**
 		 * Instantiates a new memento.
+		 * A state is never changed once its action is done,
+		 * so it is shared instead of copied.
 		 *
 		 * @param state the state object
 		 */
 		private Memento(State state){
-			this.savedState = new State(state.x, state.y, state.turn, state.teamOnMove, state.invoker);
+			this.savedState = state;
 		}
 
 		/**
@@ -634,42 +1243,157 @@ public class GameBoard implements InvokeObserverInterface {
 	}
 	
 	/**
-	 * Save game.
-	 * Saving entity arraylists, bsize, turn, weapon, gameBoard.
+	 * Creates a snapshot of the game data: turn, tiles, entities and weapons.
+	 * The snapshot shares no object with this game board.
+	 *
+	 * @return the game snapshot
 	 */
+	public GameSnapshot createSnapshot() {
+		int numEntities = 0;
+		int[] teamSizes = new int[Consts.NUM_TEAMS];
+		for(int t=0; t<Consts.NUM_TEAMS; t++){
+			teamSizes[t] = teamManager.getTeam(t).size();
+			numEntities += teamSizes[t];
+		}
+		GameSnapshot snapshot = new GameSnapshot(BSIZE, numEntities, boardWeapons.length);
+		snapshot.turn = turn;
+		snapshot.teamOnMove = teamOnMove;
+		snapshot.winner = winner;
+		snapshot.teamSizes = teamSizes;
+		// Tiles never change during a game, the seed picks them again
+		snapshot.seed = tileSeed;
+		int n = 0;
+		for(int t=0; t<Consts.NUM_TEAMS; t++){
+			for(Entity e: teamManager.getTeam(t).getMembers()){
+				snapshot.names[n] = e.getName();
+				snapshot.professions[n] = (byte) ProfessionTypes.fromCharacterName(e.getProfessionName()).ordinal();
+				snapshot.team[n] = e.getTeam();
+				snapshot.hp[n] = e.getCurrentHP();
+				snapshot.maxHP[n] = e.getMaxHP();
+				snapshot.strength[n] = e.getStrength();
+				snapshot.agility[n] = e.getAgility();
+				snapshot.defense[n] = e.getDefense();
+				snapshot.xPos[n] = e.getXPos();
+				snapshot.yPos[n] = e.getYPos();
+				snapshot.moved[n] = e.isMoved();
+				n ++;
+			}
+		}
+		for(int i=0; i<boardWeapons.length; i++){
+			Weapon weapon = boardWeapons[i];
+			snapshot.weaponTypes[i] = (byte) weapon.getType().ordinal();
+			snapshot.weaponX[i] = weapon.getXPos();
+			snapshot.weaponY[i] = weapon.getYPos();
+			snapshot.weaponOnBoard[i] = gameBoard.getWeapon(weapon.getXPos(), weapon.getYPos()) == weapon;
+		}
+		return snapshot;
+	}
 
+	/**
+	 * Restores the game data from a snapshot.
+	 * Entities are rebuilt from their profession, so their images are
+	 * looked up again on demand. The undo history is not part of a
+	 * snapshot and starts empty.
+	 * A snapshot of another board size rebuilds the board at its size.
+	 *
+	 * @param snapshot the game snapshot
+	 * @throws IllegalArgumentException if the snapshot does not make valid game settings
+	 */
+	public void restoreSnapshot(GameSnapshot snapshot) {
+		if(snapshot.boardSize != BSIZE) {
+			resize(snapshot);
+		}
+		ProfessionTypes[] professions = ProfessionTypes.values();
+		int n = 0;
+		for(int t=0; t<snapshot.teamSizes.length; t++){
+			ArrayList<Entity> members = new ArrayList<Entity>(snapshot.teamSizes[t]);
+			for(int k=0; k<snapshot.teamSizes[t]; k++){
+				Entity e = createEntity(professions[snapshot.professions[n]], snapshot.team[n]);
+				e.setName(snapshot.names[n]);
+				e.setTeam(snapshot.team[n]);
+				e.setMaxHP(snapshot.maxHP[n]);
+				e.setCurrentHP(snapshot.hp[n]);
+				e.setStrength(snapshot.strength[n]);
+				e.setAgility(snapshot.agility[n]);
+				e.setDefense(snapshot.defense[n]);
+				e.setPos(snapshot.xPos[n], snapshot.yPos[n]);
+				if(snapshot.moved[n]) e.setMoved();
+				else e.unsetMoved();
+				members.add(e);
+				n ++;
+			}
+			// Teams are created empty, their members are the restored ones
+			Team team = new Team(t == Consts.HUMAN_TEAM_NUM ? TeamTypes.Human : TeamTypes.Alien, fwFactory, 0);
+			team.setMembers(members);
+			teamManager.setTeam(team, t);
+		}
+		teamManager.reindex(BSIZE);
+
+		boardWeapons = new Weapon[snapshot.weaponTypes.length];
+		winner = snapshot.winner;
+		tileSeed = snapshot.seed;
+		generateBoard();
+		for(int i=0; i<boardWeapons.length; i++){
+			boardWeapons[i] = new Weapon(snapshot.weaponTypes[i]);
+			boardWeapons[i].setPos(snapshot.weaponX[i], snapshot.weaponY[i]);
+			if(snapshot.weaponOnBoard[i]) {
+				gameBoard.setWeapon(snapshot.weaponX[i], snapshot.weaponY[i], boardWeapons[i]);
+			}
+		}
+		updateBoard();
+		setTurn(snapshot.turn, snapshot.teamOnMove);
+	}
+
+	/**
+	 * Takes the board size of a snapshot of another board size.
+	 * The settings keep their seed and entity store and take the teams and
+	 * weapons of the snapshot, which fit on its board.
+	 *
+	 * @param snapshot the game snapshot
+	 */
+	private void resize(GameSnapshot snapshot) {
+		int pieces = 1;
+		for(int t=0; t<snapshot.teamSizes.length; t++){
+			pieces = Math.max(pieces, snapshot.teamSizes[t]);
+		}
+		settings = new GameSettings(snapshot.boardSize, pieces, snapshot.weaponTypes.length,
+				settings.isEntityStoreEnabled(), settings.getSeed());
+		BSIZE = snapshot.boardSize;
+		// The move range field is sized to the board
+		moveRange = null;
+	}
+
+	/**
+	 * Creates an entity of a profession.
+	 * An advanced professional decorates a basic unit of its team.
+	 *
+	 * @param type the profession
+	 * @param team the team number
+	 * @return the entity
+	 */
+	private Entity createEntity(ProfessionTypes type, int team) {
+		if(type == ProfessionTypes.SOLDIER || type == ProfessionTypes.SPAWN) {
+			return fwFactory.createEntity(type);
+		}
+		Entity basic = fwFactory.createEntity(team == Consts.HUMAN_TEAM_NUM ?
+				ProfessionTypes.SOLDIER : ProfessionTypes.SPAWN);
+		return fwFactory.createProfessionalEntity(type, basic);
+	}
+
+	/**
+	 * Save game.
+	 * Takes a snapshot of the game data and writes it in SaveGameFormat,
+	 * in the background if there is a save game writer.
+	 */
 	public void saveGame(){
-		//variables of game data for serialization
-		
-		ArrayList<Entity> humanTeam = 
-				teamManager.getTeam(Consts.HUMAN_TEAM_NUM).getMembers();
-		ArrayList<Entity> alienTeam = 
-				teamManager.getTeam(Consts.ALIEN_TEAM_NUM).getMembers();
-		int bsize = this.BSIZE;
-		int currentTurn = this.turn;
-		int teamOnMove = getTeamOnMove();
-		BoardCell[][] board = gameBoard;
-		Weapon[] weapons = this.boardWeapons;
-		
-		//write objects into single gamedata object
-		ArrayList<Object> gameData = new ArrayList<Object>();
-		gameData.add(humanTeam);
-		gameData.add(alienTeam);
-		gameData.add(bsize);
-		gameData.add(currentTurn);
-		gameData.add(teamOnMove);
-		gameData.add(board);
-		gameData.add(weapons);
-		
-		//write gamedata object to file (serializing)
+		GameSnapshot snapshot = createSnapshot();
+		controller.showSavingVerbose();
+		if(saveWriter != null) {
+			saveWriter.submit(snapshot);
+			return;
+		}
 		try {
-			controller.showSavingVerbose();
-			FileOutputStream fileOut = new FileOutputStream("saveData.ser");
-			ObjectOutputStream out = new ObjectOutputStream(fileOut);
-			out.writeObject(gameData);
-			out.close();
-			fileOut.close();
-	
+			SaveGameWriter.write(snapshot, new File(SAVE_FILE));
 		} catch(IOException i){
 			i.printStackTrace();
 		}
@@ -677,54 +1401,38 @@ public class GameBoard implements InvokeObserverInterface {
 	
 	/**
 	 * Load game.
-	 * Loading entity arraylists, bsize, turn, weapon, gameBoard.
+	 * Reads a snapshot of the game data in SaveGameFormat and restores it.
 	 */
 	public void loadGame(){
-		//variables of game data for deserialization
-		ArrayList<Entity> humanTeam = null; //0 (index of deserialized arraylist)
-		ArrayList<Entity> alienTeam = null; //1
-		int bsize = 0;						//2
-		int currentTurn = 0;				//3
-		int teamOnMove = 0;					//4
-		BoardCell[][] board = null;			//5
-		Weapon[] weapons = null;			//6
-		ArrayList<Object> deserialized;		//stores deserialized objects
-		
-		//read the objects (deserializing)
+		File file = new File(SAVE_FILE);
+		if(saveWriter != null) {
+			// Wait for a save still being written
+			saveWriter.flush();
+			file = saveWriter.getFile();
+		}
+		GameSnapshot snapshot;
 		try {
-			FileInputStream fileIn = new FileInputStream("saveData.ser");
-			ObjectInputStream in = new ObjectInputStream(fileIn);
-			deserialized = (ArrayList<Object>)in.readObject();
-			in.close();
-			fileIn.close();
+			InputStream in = new BufferedInputStream(new FileInputStream(file));
+			try {
+				snapshot = SaveGameFormat.read(in);
+			} finally {
+				in.close();
+			}
 		} catch(IOException i){
 			i.printStackTrace();
 			return;
-		} catch(ClassNotFoundException c){
-			c.printStackTrace();
+		}
+
+		try {
+			restoreSnapshot(snapshot);
+		} catch(IllegalArgumentException e){
+			e.printStackTrace();
 			return;
 		}
-		
-		//Put deserialized data back into respective types
-		humanTeam = (ArrayList<Entity>)deserialized.get(TEAM_ONE_ARRAYLIST_OBJECT_INDEX);
-		alienTeam = (ArrayList<Entity>)deserialized.get(TEAM_TWO_ARRAYLIST_OBJECT_INDEX);
-		bsize = (Integer) deserialized.get(BOARD_SIZE_OBJECT_INDEX);
-		currentTurn = (Integer)deserialized.get(TURN_COUNT_OBJECT_INDEX);
-		teamOnMove = (Integer)deserialized.get(TEAM_ON_MOVE_OBJECT_INDEX);
-		board = (BoardCell[][])deserialized.get(BOARD_CELL_2DARRAY_OBJECT_INDEX);
-		weapons = (Weapon[])deserialized.get(WEAPON_ARRAY_OBJECT_INDEX);
-		
-		Team hTeam = new Team(TeamTypes.Human);
-		Team aTeam = new Team(TeamTypes.Alien);
-		hTeam.setMembers(humanTeam);
-		aTeam.setMembers(alienTeam);
-		teamManager.setTeam(hTeam, Consts.HUMAN_TEAM_NUM);
-		teamManager.setTeam(aTeam, Consts.ALIEN_TEAM_NUM);
-		Consts.BSIZE = bsize;
-
-		gameBoard = board;
-		this.boardWeapons = weapons;
-		setTurn(currentTurn, teamOnMove);
+		// The loaded game starts a new journal
+		if(journal != null) {
+			enableJournal(journal.getSnapshotTurns());
+		}
 	}
 	
 	
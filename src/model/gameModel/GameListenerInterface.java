@@ -0,0 +1,35 @@
+package model.gameModel;
+
+/**
+ * Listener of the events a GameBoard raises while a game is played.
+ *
+ * GameBoard only talks to the outside world through this interface,
+ * so it can be driven by the Swing GameController as well as by a
+ * headless simulation without any AWT class being loaded.
+ */
+public interface GameListenerInterface {
+
+    /** Called when the turn is passed to the next team. */
+    void switchTurn();
+
+    /** Called when the team on move has defeated the other team. */
+    void teamWin();
+
+    /**
+     * Called when a piece steps on a weapon.
+     *
+     * @param weaponName the weapon name
+     * @return true, if the piece picks up the weapon
+     */
+    boolean foundWeapon(String weaponName);
+
+    /**
+     * Called when a command is invoked on a target.
+     *
+     * @param type the command type: attack, upcast or downcast
+     */
+    void setAttack(String type);
+
+    /** Called before the game is written to disk. */
+    void showSavingVerbose();
+}
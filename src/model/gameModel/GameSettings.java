@@ -0,0 +1,135 @@
+package model.gameModel;
+
+import resources.Consts;
+
+import java.util.Random;
+
+/**
+ * Immutable settings of one game: board size, number of pieces per
+ * team, number of weapons on the map and the seed of the random
+ * choices of the game.
+ *
+ * A GameBoard reads its settings from here instead of from the mutable
+ * globals in Consts, so games with different settings can be played
+ * side by side, e.g. by a batch of simulations on several threads.
+ *
+ * Games of the same settings and seed start on identical boards, with
+ * the same tiles, pieces and weapons, so runs can be reproduced.
+ */
+public class GameSettings {
+
+    /** The board size. */
+    private final int boardSize;
+
+    /** The number of pieces per team. */
+    private final int numPiecesPerTeam;
+
+    /** The number of weapons on the map initially. */
+    private final int numWeapons;
+
+    /** Whether entity stats are kept off the heap in an EntityStore. */
+    private final boolean entityStoreEnabled;
+
+    /** The seed of the board setup and the tiles. */
+    private final long seed;
+
+    /**
+     * Instantiates new game settings.
+     *
+     * @param boardSize the board size
+     * @param numPiecesPerTeam the number of pieces per team
+     * @param numWeapons the number of weapons on the map initially
+     */
+    public GameSettings(int boardSize, int numPiecesPerTeam, int numWeapons) {
+        this(boardSize, numPiecesPerTeam, numWeapons, false);
+    }
+
+    /**
+     * Instantiates new game settings.
+     * A new seed is picked at random, see getSeed().
+     *
+     * @param boardSize the board size
+     * @param numPiecesPerTeam the number of pieces per team
+     * @param numWeapons the number of weapons on the map initially
+     * @param entityStoreEnabled whether entity stats are kept in an EntityStore,
+     *        which pays off for large armies
+     */
+    public GameSettings(int boardSize, int numPiecesPerTeam, int numWeapons, boolean entityStoreEnabled) {
+        this(boardSize, numPiecesPerTeam, numWeapons, entityStoreEnabled, new Random().nextLong());
+    }
+
+    /**
+     * Instantiates new game settings.
+     *
+     * @param boardSize the board size
+     * @param numPiecesPerTeam the number of pieces per team
+     * @param numWeapons the number of weapons on the map initially
+     * @param entityStoreEnabled whether entity stats are kept in an EntityStore
+     * @param seed the seed of the board setup and the tiles
+     * @throws IllegalArgumentException if the board is too small for the
+     *         leaders' dispatch grids or the pieces and weapons do not fit on it
+     */
+    public GameSettings(int boardSize, int numPiecesPerTeam, int numWeapons, boolean entityStoreEnabled, long seed) {
+        if (boardSize <= Consts.DIST + 1) {
+            throw new IllegalArgumentException("Board size " + boardSize
+                    + " is too small, it must be at least " + (Consts.DIST + 2));
+        }
+        if (numPiecesPerTeam < 1 || numWeapons < 0) {
+            throw new IllegalArgumentException("Invalid number of pieces " + numPiecesPerTeam
+                    + " or weapons " + numWeapons);
+        }
+        // Each piece and each weapon needs a square of its own
+        long squares = (long) boardSize * boardSize;
+        if ((long) Consts.NUM_TEAMS * numPiecesPerTeam + numWeapons > squares) {
+            throw new IllegalArgumentException(Consts.NUM_TEAMS + " teams of " + numPiecesPerTeam
+                    + " pieces and " + numWeapons + " weapons do not fit on a board of "
+                    + boardSize + "x" + boardSize);
+        }
+        this.boardSize = boardSize;
+        this.numPiecesPerTeam = numPiecesPerTeam;
+        this.numWeapons = numWeapons;
+        this.entityStoreEnabled = entityStoreEnabled;
+        this.seed = seed;
+    }
+
+    /**
+     * Creates the same settings with another seed, e.g. for each game
+     * of a batch.
+     *
+     * @param seed the seed of the board setup and the tiles
+     * @return the game settings
+     */
+    public GameSettings withSeed(long seed) {
+        return new GameSettings(boardSize, numPiecesPerTeam, numWeapons, entityStoreEnabled, seed);
+    }
+
+    /**
+     * Creates game settings from the current values in Consts,
+     * i.e. the ones chosen on the setting panel.
+     *
+     * @return the game settings
+     */
+    public static GameSettings fromConsts() {
+        return new GameSettings(Consts.getBSIZE(), Consts.getNumPiecesPerTeam(), Consts.getNumWeapons());
+    }
+
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    public int getNumPiecesPerTeam() {
+        return numPiecesPerTeam;
+    }
+
+    public int getNumWeapons() {
+        return numWeapons;
+    }
+
+    public boolean isEntityStoreEnabled() {
+        return entityStoreEnabled;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+}
@@ -0,0 +1,122 @@
+package model.gameModel;
+
+/**
+ * Immutable snapshot of the data of one game.
+ * Responsibility:
+ *
+ * 1. To hold the game data only, i.e. turn, team on move, winner, the
+ *    seed the tiles are picked from, stats, position and profession of
+ *    every entity and type and position of every weapon, as primitive
+ *    arrays.
+ *
+ * 2. To be created by GameBoard.createSnapshot() and restored by
+ *    GameBoard.restoreSnapshot(). Images are never part of it, they
+ *    are looked up again from ImageManager after a restore.
+ *
+ * Entities are stored team by team, in the order of the team members.
+ */
+public class GameSnapshot {
+
+    int boardSize;
+    int turn;
+    int teamOnMove;
+    int winner = -1;
+
+    /** The seed the tile of every cell is picked from. */
+    long seed;
+
+    /** The number of entities of each team. */
+    int[] teamSizes;
+
+    // Entity columns
+    String[] names;
+    byte[] professions; // ProfessionTypes ordinal
+    int[] team;
+    int[] hp;
+    int[] maxHP;
+    int[] strength;
+    int[] agility;
+    int[] defense;
+    int[] xPos;
+    int[] yPos;
+    boolean[] moved;
+
+    // Weapon columns
+    byte[] weaponTypes; // Weapon.Weapons ordinal
+    int[] weaponX;
+    int[] weaponY;
+    boolean[] weaponOnBoard; // false once picked up
+
+    GameSnapshot(int boardSize, int numEntities, int numWeapons) {
+        this.boardSize = boardSize;
+        names = new String[numEntities];
+        professions = new byte[numEntities];
+        team = new int[numEntities];
+        hp = new int[numEntities];
+        maxHP = new int[numEntities];
+        strength = new int[numEntities];
+        agility = new int[numEntities];
+        defense = new int[numEntities];
+        xPos = new int[numEntities];
+        yPos = new int[numEntities];
+        moved = new boolean[numEntities];
+        weaponTypes = new byte[numWeapons];
+        weaponX = new int[numWeapons];
+        weaponY = new int[numWeapons];
+        weaponOnBoard = new boolean[numWeapons];
+    }
+
+    /**
+     * Gets the board size.
+     *
+     * @return the board size
+     */
+    public int getBoardSize() {
+        return boardSize;
+    }
+
+    /**
+     * Gets the turn count.
+     *
+     * @return the turn count
+     */
+    public int getTurn() {
+        return turn;
+    }
+
+    /**
+     * Gets the team number on move.
+     *
+     * @return the team on move
+     */
+    public int getTeamOnMove() {
+        return teamOnMove;
+    }
+
+    /**
+     * Gets the winning team.
+     *
+     * @return the winning team number, or -1 if no team had won yet
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Gets the seed the tiles are picked from.
+     *
+     * @return the tile seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Gets the number of entities of all teams.
+     *
+     * @return the number of entities
+     */
+    public int getNumEntities() {
+        return names.length;
+    }
+}
@@ -0,0 +1,51 @@
+package model.gameModel;
+
+/**
+ * Game listener for running a GameBoard without any user interface,
+ * e.g. for balance simulations on headless machines.
+ *
+ * All events are ignored and weapons are picked up or left according
+ * to a fixed policy, so a game can be driven at full CPU speed.
+ */
+public class HeadlessGameListener implements GameListenerInterface {
+
+    /** Whether pieces pick up the weapons they step on. */
+    private final boolean pickUpWeapons;
+
+    /**
+     * Instantiates a new headless game listener which picks up all weapons.
+     */
+    public HeadlessGameListener() {
+        this(true);
+    }
+
+    /**
+     * Instantiates a new headless game listener.
+     *
+     * @param pickUpWeapons whether pieces pick up the weapons they step on
+     */
+    public HeadlessGameListener(boolean pickUpWeapons) {
+        this.pickUpWeapons = pickUpWeapons;
+    }
+
+    @Override
+    public void switchTurn() {
+    }
+
+    @Override
+    public void teamWin() {
+    }
+
+    @Override
+    public boolean foundWeapon(String weaponName) {
+        return pickUpWeapons;
+    }
+
+    @Override
+    public void setAttack(String type) {
+    }
+
+    @Override
+    public void showSavingVerbose() {
+    }
+}
@@ -0,0 +1,254 @@
+package model.gameModel;
+
+import resources.Consts;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mirror of the live game state in a memory-mapped file.
+ * Responsibility:
+ *
+ * 1. To copy the turn, the entity stats and the occupancy of the
+ *    board into a file other processes can map, e.g. an external
+ *    dashboard, after every action. Only the rows of the entities
+ *    and the cells they left or entered are written, so the cost
+ *    grows with the number of entities instead of the board area.
+ *
+ * 2. To guard every update with a sequence lock, so a reader gets a
+ *    consistent copy at any rate without ever pausing the game.
+ *
+ * The file is little endian, all fields are ints unless noted:
+ *
+ *   0  MAGIC            8  sequence (long)   16 board size
+ *   20 turn             24 team on move      28 winner, -1 while running
+ *   32 entity count     36 entity capacity   40 ints per entity row
+ *   44 - 63 reserved
+ *
+ * The entity rows follow the header, capacity rows of ROW ints: the
+ * fields of an EntityStore row, then the ProfessionTypes ordinal. The
+ * occupancy of the board follows the rows, an int per cell indexed by
+ * x * size + y, holding the row of the entity on it plus one, or 0.
+ *
+ * The sequence is odd while the game thread writes. A reader reads
+ * it, retries while it is odd, copies what it needs, and keeps the
+ * copy if the sequence is still the same. If the board size or the
+ * capacity changed, the file has grown and has to be mapped again.
+ *
+ * The game thread keeps the sequence in an AtomicLong and orders its
+ * writes to the mapping with it:
+ *
+ *   begin: put the odd sequence, then set() it, a volatile write
+ *   update: plain puts of the header fields, rows and occupancy
+ *   end:   lazySet() the even sequence, then put it
+ *
+ * The JVM puts a full fence after a volatile write and a store-store
+ * fence before an ordered one, so no other core sees a write of the
+ * update before the odd sequence or after the even one. The Java
+ * memory model does not cover other processes, these are the fences
+ * of the JSR-133 cookbook that HotSpot emits. The reader has to order
+ * its loads the same way: a load fence, or an acquire load, after the
+ * first read of the sequence and before the second one.
+ */
+public class LiveStateFile {
+
+    /** "HVAL" as the first int of the file. */
+    public static final int MAGIC = 0x4C415648;
+
+    /** The size of the header in bytes. */
+    public static final int HEADER_BYTES = 64;
+
+    /** The number of ints in an entity row. */
+    public static final int ROW = EntityStore.FIELDS + 1;
+
+    // Header offsets in bytes
+    private static final int SEQUENCE = 8;
+    private static final int BOARD_SIZE = 16;
+    private static final int TURN = 20;
+    private static final int TEAM_ON_MOVE = 24;
+    private static final int WINNER = 28;
+    private static final int ENTITY_COUNT = 32;
+    private static final int ENTITY_CAPACITY = 36;
+    private static final int ROW_INTS = 40;
+
+    /** The offset of the profession in a row. */
+    private static final int PROFESSION = EntityStore.FIELDS;
+
+    /** The file. */
+    private final File file;
+
+    /** The mapping of the whole file. */
+    private MappedByteBuffer map;
+
+    /** The entity rows and the occupancy, after the header. */
+    private IntBuffer data;
+
+    private int boardSize;
+    private int capacity;
+
+    /** The number of the last update, odd while one is written. */
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** The occupancy cell each row was last written to, -1 if none. */
+    private int[] cellOf = new int[0];
+
+    /**
+     * Instantiates a new live state file.
+     * The file is created or replaced when the first state is published.
+     *
+     * @param file the file
+     */
+    public LiveStateFile(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the file.
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Gets the sequence of the file, even once an update is written.
+     *
+     * @return the sequence
+     */
+    public long getSequence() {
+        return sequence.get();
+    }
+
+    /**
+     * Copies the state of a game into the file.
+     *
+     * @param board the game board
+     * @throws IOException if the file can not be mapped
+     */
+    public void publish(GameBoard board) throws IOException {
+        TeamManager teamManager = board.getTeamManager();
+        int count = 0;
+        for(int t = 0; t < Consts.NUM_TEAMS; t ++) {
+            count += teamManager.getTeam(t).size();
+        }
+        int size = board.getSettings().getBoardSize();
+        if(map == null || size != boardSize || count > capacity) {
+            open(size, Math.max(count, capacity));
+        }
+
+        begin();
+        map.putInt(TURN, board.getTurn());
+        map.putInt(TEAM_ON_MOVE, board.getTeamOnMove());
+        map.putInt(WINNER, board.getWinner());
+        map.putInt(ENTITY_COUNT, count);
+        int occupancy = capacity * ROW;
+        int n = 0;
+        for(int t = 0; t < Consts.NUM_TEAMS; t ++) {
+            for(Entity e : teamManager.getTeam(t).getMembers()) {
+                int row = n * ROW;
+                int x = e.getXPos();
+                int y = e.getYPos();
+                data.put(row + EntityStore.HP, e.getCurrentHP());
+                data.put(row + EntityStore.MAX_HP, e.getMaxHP());
+                data.put(row + EntityStore.STRENGTH, e.getStrength());
+                data.put(row + EntityStore.AGILITY, e.getAgility());
+                data.put(row + EntityStore.DEFENSE, e.getDefense());
+                data.put(row + EntityStore.X_POS, x);
+                data.put(row + EntityStore.Y_POS, y);
+                data.put(row + EntityStore.TEAM, e.getTeam());
+                data.put(row + EntityStore.MOVED, e.isMoved() ? 1 : 0);
+                data.put(row + PROFESSION, ProfessionTypes.fromCharacterName(e.getProfessionName()).ordinal());
+                int cell = x >= 0 && y >= 0 && x < size && y < size ? x * size + y : -1;
+                moveCell(occupancy, n, cell);
+                n ++;
+            }
+        }
+        // Rows of entities no longer in the game
+        for(; n < cellOf.length; n ++) {
+            moveCell(occupancy, n, -1);
+        }
+        end();
+    }
+
+    /**
+     * Moves the occupancy of a row from the cell it was last written
+     * to. The old cell is only cleared if it still holds this row, as
+     * another entity may have taken it in the same update.
+     */
+    private void moveCell(int occupancy, int n, int cell) {
+        int old = cellOf[n];
+        if(old == cell) {
+            return;
+        }
+        if(old >= 0 && data.get(occupancy + old) == n + 1) {
+            data.put(occupancy + old, 0);
+        }
+        if(cell >= 0) {
+            data.put(occupancy + cell, n + 1);
+        }
+        cellOf[n] = cell;
+    }
+
+    private void begin() {
+        long odd = sequence.get() + 1;
+        map.putLong(SEQUENCE, odd);
+        // The fence after the volatile write keeps the writes of the
+        // update after the odd sequence
+        sequence.set(odd);
+    }
+
+    private void end() {
+        long even = sequence.get() + 1;
+        // The fence before the ordered write keeps the writes of the
+        // update before the even sequence
+        sequence.lazySet(even);
+        map.putLong(SEQUENCE, even);
+    }
+
+    /**
+     * Maps the file for a board size and entity capacity. The
+     * occupancy starts empty, the next update writes every entity.
+     */
+    private void open(int size, int entities) throws IOException {
+        long bytes = HEADER_BYTES + 4L * entities * ROW + 4L * size * size;
+        boolean fresh = map == null;
+        RandomAccessFile raf = new RandomAccessFile(file, "rw");
+        try {
+            // A new file is zero filled. A file this game mapped before
+            // only grows, a reader may still have it mapped
+            if(fresh) raf.setLength(0);
+            raf.setLength(Math.max(raf.length(), bytes));
+            map = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        } finally {
+            raf.close();
+        }
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        map.position(HEADER_BYTES);
+        data = map.slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        map.clear();
+        boardSize = size;
+        capacity = entities;
+        cellOf = new int[entities];
+        Arrays.fill(cellOf, -1);
+        // The sequence goes on, a reader of the old mapping sees a change
+        begin();
+        if(!fresh) {
+            for(int i = 0; i < data.capacity(); i ++) {
+                data.put(i, 0);
+            }
+        }
+        map.putInt(0, MAGIC);
+        map.putInt(BOARD_SIZE, size);
+        map.putInt(ENTITY_CAPACITY, entities);
+        map.putInt(ROW_INTS, ROW);
+        end();
+    }
+}
@@ -0,0 +1,187 @@
+package model.gameModel;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Spatial index of the pieces on the game board.
+ * Responsibility:
+ *
+ * 1. To map a board cooridinate to the entity standing on it
+ *    through arrays of the same chunks as the ChunkedBoard, so
+ *    looking up a cell does not have to walk the members of every
+ *    team, and only the chunks that ever held a piece are allocated.
+ *
+ * 2. To be kept up to date by Entity.setPos(), which is the
+ *    single place every Move, undo and kill changes a position.
+ *
+ * 3. To record which cells changed since the game board was last
+ *    synchronised, so the board only has to refresh those cells.
+ *
+ * Cooridinates outside the board (e.g. -1, -1 for a destroyed
+ * entity) are never stored.
+ */
+public class OccupancyGrid {
+
+    /** The board size. */
+    private final int size;
+
+    /** The number of chunks along a side of the board. */
+    private final int chunks;
+
+    /** The occupant of each cell, indexed by chunk, then by cell within the chunk. */
+    private final Entity[][] cells;
+
+    /** The cells changed since the last clearDirty(), in order of change. */
+    private int[] dirty = new int[16];
+
+    /** The number of changed cells. */
+    private int dirtyCount;
+
+    /** Flags to record each changed cell only once, by x * size + y. */
+    private final BitSet dirtyFlag = new BitSet();
+
+    /**
+     * Instantiates a new occupancy grid.
+     *
+     * @param size the board size
+     */
+    public OccupancyGrid(int size) {
+        this.size = size;
+        this.chunks = (size + ChunkedBoard.CHUNK_SIZE - 1) >> ChunkedBoard.CHUNK_SHIFT;
+        this.cells = new Entity[chunks * chunks][];
+    }
+
+    private int chunk(int x, int y) {
+        return (x >> ChunkedBoard.CHUNK_SHIFT) * chunks + (y >> ChunkedBoard.CHUNK_SHIFT);
+    }
+
+    private static int cell(int x, int y) {
+        int mask = ChunkedBoard.CHUNK_SIZE - 1;
+        return (x & mask) << ChunkedBoard.CHUNK_SHIFT | (y & mask);
+    }
+
+    /**
+     * Gets the board size.
+     *
+     * @return the board size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if a cooridinate is on the board.
+     *
+     * @param x the x
+     * @param y the y
+     * @return true, if it is on the board
+     */
+    public boolean contains(int x, int y) {
+        return x >= 0 && y >= 0 && x < size && y < size;
+    }
+
+    /**
+     * Gets the entity on a cell.
+     *
+     * @param x the x
+     * @param y the y
+     * @return the entity, or null if the cell is empty or off the board
+     */
+    public Entity get(int x, int y) {
+        if(!contains(x, y)) return null;
+        Entity[] chunk = cells[chunk(x, y)];
+        return chunk == null ? null : chunk[cell(x, y)];
+    }
+
+    /**
+     * Puts an entity on a cell.
+     *
+     * @param x the x
+     * @param y the y
+     * @param entity the entity
+     */
+    public void put(int x, int y, Entity entity) {
+        if(contains(x, y)) {
+            int c = chunk(x, y);
+            if(cells[c] == null) {
+                cells[c] = new Entity[ChunkedBoard.CHUNK_SIZE * ChunkedBoard.CHUNK_SIZE];
+            }
+            cells[c][cell(x, y)] = entity;
+            markDirty(x, y);
+        }
+    }
+
+    /**
+     * Moves an entity from one cell to another.
+     * The old cell is only cleared if it still holds this entity,
+     * so a stale cooridinate never wipes out another piece.
+     *
+     * @param entity the entity being moved
+     * @param ox from x
+     * @param oy from y
+     * @param nx destination x
+     * @param ny destination y
+     */
+    public void move(Entity entity, int ox, int oy, int nx, int ny) {
+        if(contains(ox, oy) && get(ox, oy) == entity) {
+            Entity[] chunk = cells[chunk(ox, oy)];
+            if(chunk != null) chunk[cell(ox, oy)] = null;
+            markDirty(ox, oy);
+        }
+        put(nx, ny, entity);
+    }
+
+    /**
+     * Removes every entity from the grid.
+     */
+    public void clear() {
+        Arrays.fill(cells, null);
+        clearDirty();
+    }
+
+    /**
+     * Records a cell as changed, e.g. the target of an attack.
+     *
+     * @param x the x
+     * @param y the y
+     */
+    public void markDirty(int x, int y) {
+        if(!contains(x, y)) return;
+        int cell = x * size + y;
+        if(!dirtyFlag.get(cell)) {
+            dirtyFlag.set(cell);
+            if(dirtyCount == dirty.length) dirty = Arrays.copyOf(dirty, dirtyCount * 2);
+            dirty[dirtyCount ++] = cell;
+        }
+    }
+
+    /**
+     * Gets the number of changed cells.
+     *
+     * @return the dirty count
+     */
+    public int getDirtyCount() {
+        return dirtyCount;
+    }
+
+    /**
+     * Gets a changed cell as x * size + y.
+     *
+     * @param i the index, from 0 to getDirtyCount() - 1
+     * @return the cell
+     */
+    public int getDirtyCell(int i) {
+        return dirty[i];
+    }
+
+    /**
+     * Forgets all changed cells.
+     */
+    public void clearDirty() {
+        for(int i = 0; i < dirtyCount; i ++) {
+            dirtyFlag.clear(dirty[i]);
+        }
+        dirtyCount = 0;
+    }
+}
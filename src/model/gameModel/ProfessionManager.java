@@ -14,12 +14,12 @@ public class ProfessionManager {
     /**
      * Change profession.
      *
+     * @param fwFactory the entity factory of the game
      * @param target the original entity to be transfered
      * @param weapon the weapon it picked up
      * @return ProfessionDecorator the advanced professional entiy
      */
-    public static Entity changeProfession(Entity target, Weapon.Weapons weapon) {
-        EntityFlyweightFactory fwFactory = GameBoard.fwFactory;
+    public static Entity changeProfession(EntityFlyweightFactory fwFactory, Entity target, Weapon.Weapons weapon) {
         ProfessionTypes type = null;
         switch(weapon) {
             case CANNON:
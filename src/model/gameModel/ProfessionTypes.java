@@ -30,4 +30,17 @@ public enum ProfessionTypes {
     public String getCharacterName() {
         return this.characterName;
     }
-}
\ No newline at end of file
+
+    /**
+     * Gets the profession type of a character name.
+     *
+     * @param charName the character name, e.g. Entity.getProfessionName()
+     * @return the profession type, or null if there is none
+     */
+    public static ProfessionTypes fromCharacterName(String charName) {
+        for (ProfessionTypes type : values()) {
+            if (type.characterName.equals(charName)) return type;
+        }
+        return null;
+    }
+}
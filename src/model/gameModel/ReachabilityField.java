@@ -0,0 +1,169 @@
+package model.gameModel;
+
+/**
+ * Distance field of the cells a piece can reach.
+ * Responsibility:
+ *
+ * 1. To find the cells within a number of steps from a piece by a
+ *    breadth-first search over the board. Pieces block the way, so
+ *    a piece can not pass through a wall of other pieces.
+ *
+ * 2. To only visit cells within range, so the cost grows with the
+ *    square of the range instead of the board area, and to keep its
+ *    arrays for the next search instead of allocating new ones.
+ *    The arrays only cover the window of cells within range of the
+ *    piece, so their size does not grow with the board either.
+ *
+ * A cell belongs to the last search if its stamp equals the current
+ * one, so nothing has to be cleared between two searches.
+ */
+public class ReachabilityField {
+
+    /** The offsets of the cells next to a cell. */
+    private static final int[][] NEIGHBOURS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /** The board size. */
+    private final int size;
+
+    /** The steps to each cell of the window, valid where stamp equals current. */
+    private int[] distance = new int[0];
+
+    /** The search each distance belongs to. */
+    private int[] stamp = new int[0];
+
+    /** The number of the current search. */
+    private int current;
+
+    // The window of the current search: the cell in its top left
+    // corner and its height, cells are indexed by (x - x0) * h + y - y0
+    private int x0, y0, h;
+
+    /** The reached cells in order of distance, as x * size + y. */
+    private int[] reached = new int[0];
+
+    /** The number of reached cells. */
+    private int reachedCount;
+
+    /**
+     * Instantiates a new reachability field.
+     *
+     * @param size the board size
+     */
+    public ReachabilityField(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Finds the cells a piece can reach.
+     * The cell of the piece is reached at distance 0. Other occupied
+     * cells are never reached.
+     *
+     * @param grid the spatial index of the pieces
+     * @param x the x of the piece
+     * @param y the y of the piece
+     * @param range the number of steps the piece can make
+     * @return the number of reached cells
+     */
+    public int compute(OccupancyGrid grid, int x, int y, int range) {
+        current ++;
+        reachedCount = 0;
+        if(x < 0 || y < 0 || x >= size || y >= size) return 0;
+        x0 = Math.max(x - range, 0);
+        y0 = Math.max(y - range, 0);
+        h = Math.min(y + range, size - 1) - y0 + 1;
+        int cells = (Math.min(x + range, size - 1) - x0 + 1) * h;
+        if(stamp.length < cells) {
+            // New stamps are 0, which is never the current search
+            distance = new int[cells];
+            stamp = new int[cells];
+            reached = new int[cells];
+        }
+        visit(x, y, 0);
+        // The reached cells are the queue of the search
+        for(int head = 0; head < reachedCount; head ++) {
+            int cell = reached[head];
+            int cx = cell / size;
+            int cy = cell % size;
+            int d = distance[local(cx, cy)];
+            if(d == range) continue;
+            for(int[] n : NEIGHBOURS) {
+                int nx = cx + n[0];
+                int ny = cy + n[1];
+                if(nx < 0 || ny < 0 || nx >= size || ny >= size) continue;
+                if(stamp[local(nx, ny)] == current || grid.get(nx, ny) != null) continue;
+                visit(nx, ny, d + 1);
+            }
+        }
+        return reachedCount;
+    }
+
+    private int local(int x, int y) {
+        return (x - x0) * h + y - y0;
+    }
+
+    private void visit(int x, int y, int d) {
+        int cell = local(x, y);
+        stamp[cell] = current;
+        distance[cell] = d;
+        reached[reachedCount ++] = x * size + y;
+    }
+
+    /**
+     * Checks if a cell is in the window of the current search.
+     */
+    private boolean inWindow(int x, int y) {
+        return x >= x0 && y >= y0 && y < y0 + h && local(x, y) < stamp.length;
+    }
+
+    /**
+     * Gets the board size.
+     *
+     * @return the board size
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if a cell was reached.
+     *
+     * @param x the x
+     * @param y the y
+     * @return true, if the cell can be reached
+     */
+    public boolean isReachable(int x, int y) {
+        if(reachedCount == 0 || !inWindow(x, y)) return false;
+        return stamp[local(x, y)] == current;
+    }
+
+    /**
+     * Gets the steps needed to reach a cell.
+     *
+     * @param x the x
+     * @param y the y
+     * @return the distance, or -1 if the cell can not be reached
+     */
+    public int getDistance(int x, int y) {
+        if(!isReachable(x, y)) return -1;
+        return distance[local(x, y)];
+    }
+
+    /**
+     * Gets the number of reached cells, including the cell of the piece.
+     *
+     * @return the reached count
+     */
+    public int getReachedCount() {
+        return reachedCount;
+    }
+
+    /**
+     * Gets a reached cell as x * size + y, in order of distance.
+     *
+     * @param i the index, from 0 to getReachedCount() - 1
+     * @return the cell
+     */
+    public int getReachedCell(int i) {
+        return reached[i];
+    }
+}
@@ -0,0 +1,143 @@
+package model.gameModel;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Binary save file format of a GameSnapshot.
+ *
+ * A save file only holds game data, written with DataOutputStream:
+ *
+ *   int     magic "HVAS"
+ *   short   format version
+ *   int     board size, turn count
+ *   byte    team on move, winner or -1
+ *   long    seed the tiles are picked from
+ *   byte    number of teams, then int number of entities per team
+ *   int     number of weapons
+ *   entity  UTF name, byte profession, byte team, int hp, max hp,
+ *           strength, agility, defense, short x, y, boolean moved
+ *   weapon  byte type, short x, y, boolean still on board
+ *
+ * The tiles are not written, the seed picks them again on load, so a
+ * save file does not grow with the board: 32 pieces take about 1.5 KB.
+ * The version is checked on read, so the format can be extended later
+ * while old files are still recognised. Version 1 files held the tile
+ * of every cell and no seed, they are rejected.
+ */
+public class SaveGameFormat {
+
+    /** The magic number at the start of a save file, "HVAS". */
+    static final int MAGIC = 0x48564153;
+
+    /** The current format version. */
+    static final int VERSION = 2;
+
+    private SaveGameFormat() {}
+
+    /**
+     * Writes a snapshot.
+     *
+     * @param snapshot the snapshot
+     * @param stream the stream, it is not closed
+     * @throws IOException if the stream can not be written
+     */
+    public static void write(GameSnapshot snapshot, OutputStream stream) throws IOException {
+        DataOutputStream out = new DataOutputStream(stream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeInt(snapshot.boardSize);
+        out.writeInt(snapshot.turn);
+        out.writeByte(snapshot.teamOnMove);
+        out.writeByte(snapshot.winner);
+        out.writeLong(snapshot.seed);
+
+        out.writeByte(snapshot.teamSizes.length);
+        for(int size : snapshot.teamSizes) {
+            out.writeInt(size);
+        }
+        out.writeInt(snapshot.weaponTypes.length);
+        for(int i = 0; i < snapshot.names.length; i ++) {
+            out.writeUTF(snapshot.names[i]);
+            out.writeByte(snapshot.professions[i]);
+            out.writeByte(snapshot.team[i]);
+            out.writeInt(snapshot.hp[i]);
+            out.writeInt(snapshot.maxHP[i]);
+            out.writeInt(snapshot.strength[i]);
+            out.writeInt(snapshot.agility[i]);
+            out.writeInt(snapshot.defense[i]);
+            out.writeShort(snapshot.xPos[i]);
+            out.writeShort(snapshot.yPos[i]);
+            out.writeBoolean(snapshot.moved[i]);
+        }
+
+        for(int i = 0; i < snapshot.weaponTypes.length; i ++) {
+            out.writeByte(snapshot.weaponTypes[i]);
+            out.writeShort(snapshot.weaponX[i]);
+            out.writeShort(snapshot.weaponY[i]);
+            out.writeBoolean(snapshot.weaponOnBoard[i]);
+        }
+        out.flush();
+    }
+
+    /**
+     * Reads a snapshot.
+     *
+     * @param stream the stream, it is not closed
+     * @return the snapshot
+     * @throws IOException if the stream can not be read or is not a save file
+     */
+    public static GameSnapshot read(InputStream stream) throws IOException {
+        DataInputStream in = new DataInputStream(stream);
+        if(in.readInt() != MAGIC) {
+            throw new IOException("Not a save file");
+        }
+        int version = in.readShort();
+        if(version != VERSION) {
+            throw new IOException("Unsupported save file version " + version);
+        }
+        int boardSize = in.readInt();
+        int turn = in.readInt();
+        int teamOnMove = in.readByte();
+        int winner = in.readByte();
+        long seed = in.readLong();
+
+        int[] teamSizes = new int[in.readByte()];
+        int numEntities = 0;
+        for(int t = 0; t < teamSizes.length; t ++) {
+            teamSizes[t] = in.readInt();
+            numEntities += teamSizes[t];
+        }
+        int numWeapons = in.readInt();
+
+        GameSnapshot snapshot = new GameSnapshot(boardSize, numEntities, numWeapons);
+        snapshot.turn = turn;
+        snapshot.teamOnMove = teamOnMove;
+        snapshot.winner = winner;
+        snapshot.seed = seed;
+        snapshot.teamSizes = teamSizes;
+        for(int i = 0; i < numEntities; i ++) {
+            snapshot.names[i] = in.readUTF();
+            snapshot.professions[i] = in.readByte();
+            snapshot.team[i] = in.readByte();
+            snapshot.hp[i] = in.readInt();
+            snapshot.maxHP[i] = in.readInt();
+            snapshot.strength[i] = in.readInt();
+            snapshot.agility[i] = in.readInt();
+            snapshot.defense[i] = in.readInt();
+            snapshot.xPos[i] = in.readShort();
+            snapshot.yPos[i] = in.readShort();
+            snapshot.moved[i] = in.readBoolean();
+        }
+        for(int i = 0; i < numWeapons; i ++) {
+            snapshot.weaponTypes[i] = in.readByte();
+            snapshot.weaponX[i] = in.readShort();
+            snapshot.weaponY[i] = in.readShort();
+            snapshot.weaponOnBoard[i] = in.readBoolean();
+        }
+        return snapshot;
+    }
+}
@@ -0,0 +1,145 @@
+package model.gameModel;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Writes saved games on a background thread.
+ * Responsibility:
+ *
+ * 1. To take a GameSnapshot from the game thread, which only costs
+ *    copying the game data into primitive arrays, and to encode and
+ *    write it on a single writer thread, so play never waits for
+ *    the disk.
+ *
+ * 2. To replace the save file atomically: a snapshot is written to
+ *    a temporary file next to it, synced to disk and then renamed
+ *    over the save file. A crash in between leaves the previous
+ *    save intact.
+ *
+ * Only the latest snapshot matters, so snapshots submitted while the
+ * writer is busy replace each other and only the newest is written.
+ */
+public class SaveGameWriter {
+
+    /** The save file. */
+    private final File file;
+
+    /** The newest snapshot not written yet, or null. */
+    private final AtomicReference<GameSnapshot> pending = new AtomicReference<GameSnapshot>();
+
+    /** The writer thread. */
+    private final ExecutorService executor;
+
+    /** Writes the pending snapshot. */
+    private final Runnable writeTask = new Runnable() {
+        @Override
+        public void run() {
+            GameSnapshot snapshot = pending.getAndSet(null);
+            if (snapshot == null) return;
+            try {
+                write(snapshot, file);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    };
+
+    /**
+     * Instantiates a new save game writer.
+     *
+     * @param file the save file
+     */
+    public SaveGameWriter(File file) {
+        this.file = file;
+        this.executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "save-game-writer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Gets the save file.
+     *
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Submits a snapshot to be written in the background.
+     *
+     * @param snapshot the snapshot
+     */
+    public void submit(GameSnapshot snapshot) {
+        // A write is already queued if there was a pending snapshot,
+        // it will pick up this newer one
+        if (pending.getAndSet(snapshot) == null) {
+            executor.execute(writeTask);
+        }
+    }
+
+    /**
+     * Waits until every submitted snapshot is written,
+     * e.g. before the save file is read.
+     */
+    public void flush() {
+        try {
+            executor.submit(writeTask).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Writes the remaining snapshot and stops the writer thread.
+     */
+    public void shutdown() {
+        flush();
+        executor.shutdown();
+    }
+
+    /**
+     * Writes a snapshot to a file on the calling thread.
+     * The file is replaced atomically where the file system allows.
+     *
+     * @param snapshot the snapshot
+     * @param file the save file
+     * @throws IOException if the file can not be written
+     */
+    public static void write(GameSnapshot snapshot, File file) throws IOException {
+        File tmp = new File(file.getAbsoluteFile().getParentFile(), file.getName() + ".tmp");
+        FileOutputStream fileOut = new FileOutputStream(tmp);
+        try {
+            BufferedOutputStream out = new BufferedOutputStream(fileOut);
+            SaveGameFormat.write(snapshot, out);
+            out.flush();
+            fileOut.getFD().sync();
+        } finally {
+            fileOut.close();
+        }
+        try {
+            Files.move(tmp.toPath(), file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package model.gameModel;
+
+import java.util.Arrays;
+
+/**
+ * The pieces an attack or skill of a piece can reach.
+ * Responsibility:
+ *
+ * 1. To find the pieces within range of a piece and split them into
+ *    friendly pieces, i.e. the own team including the piece itself,
+ *    and hostile pieces of the other teams.
+ *
+ * 2. To know which of the two is the valid side for the action it
+ *    was found for, e.g. Heal targets friendly pieces, LongLaser
+ *    hostile ones, so the UI and the computer players ask the same
+ *    question the same way.
+ *
+ * 3. To look up the cells within range in the spatial index, or to
+ *    walk the pieces of all teams if there are fewer pieces than
+ *    cells in range, so the cost never exceeds either, and to keep
+ *    its arrays for the next search instead of allocating new ones.
+ *
+ * Range is measured in steps along the board, like the move range,
+ * but pieces in between do not block an attack.
+ */
+public class TargetSet {
+
+    /** The friendly pieces in range. */
+    private Entity[] friendly = new Entity[16];
+
+    /** The number of friendly pieces in range. */
+    private int friendlyCount;
+
+    /** The hostile pieces in range. */
+    private Entity[] hostile = new Entity[16];
+
+    /** The number of hostile pieces in range. */
+    private int hostileCount;
+
+    /** True, if the action targets friendly pieces. */
+    private boolean friendlyAction;
+
+    /**
+     * Finds the pieces within range of a piece.
+     *
+     * @param teamManager the teams and their spatial index
+     * @param source the acting piece
+     * @param range the range of the action
+     * @param friendlyAction true, if the action targets friendly pieces
+     * @return the number of valid targets
+     */
+    public int compute(TeamManager teamManager, Entity source, int range, boolean friendlyAction) {
+        clear();
+        this.friendlyAction = friendlyAction;
+        int x = source.getXPos();
+        int y = source.getYPos();
+        OccupancyGrid grid = teamManager.getOccupancy();
+        if(!grid.contains(x, y) || range < 0) return 0;
+
+        int pieces = 0;
+        for(int t = 0; t < TeamTypes.values().length; t ++) {
+            pieces += teamManager.getTeam(t).size();
+        }
+        long cells = 2L * range * (range + 1) + 1;
+        if(cells <= pieces) {
+            // Walk the diamond of cells in range
+            for(int dx = -range; dx <= range; dx ++) {
+                int reach = range - Math.abs(dx);
+                for(int dy = -reach; dy <= reach; dy ++) {
+                    add(source, grid.get(x + dx, y + dy));
+                }
+            }
+        } else {
+            // Fewer pieces than cells, ask the index where each piece is
+            for(int t = 0; t < TeamTypes.values().length; t ++) {
+                for(Entity e : teamManager.getTeam(t).getMembers()) {
+                    int ex = e.getXPos();
+                    int ey = e.getYPos();
+                    if(Math.abs(ex - x) + Math.abs(ey - y) > range) continue;
+                    add(source, grid.get(ex, ey));
+                }
+            }
+        }
+        return getTargetCount();
+    }
+
+    /**
+     * Forgets the pieces of the last search, e.g. for a piece
+     * that has no skill to invoke.
+     */
+    public void clear() {
+        // Drop the references, the pieces may be replaced by a loaded game
+        Arrays.fill(friendly, 0, friendlyCount, null);
+        Arrays.fill(hostile, 0, hostileCount, null);
+        friendlyCount = 0;
+        hostileCount = 0;
+    }
+
+    private void add(Entity source, Entity e) {
+        if(e == null) return;
+        if(e.getTeam() == source.getTeam()) {
+            if(friendlyCount == friendly.length) friendly = Arrays.copyOf(friendly, friendlyCount * 2);
+            friendly[friendlyCount ++] = e;
+        } else {
+            if(hostileCount == hostile.length) hostile = Arrays.copyOf(hostile, hostileCount * 2);
+            hostile[hostileCount ++] = e;
+        }
+    }
+
+    /**
+     * Checks if the action targets friendly pieces.
+     *
+     * @return true, if friendly pieces are the valid targets
+     */
+    public boolean isFriendlyAction() {
+        return friendlyAction;
+    }
+
+    /**
+     * Gets the number of valid targets.
+     *
+     * @return the target count
+     */
+    public int getTargetCount() {
+        return friendlyAction ? friendlyCount : hostileCount;
+    }
+
+    /**
+     * Gets a valid target.
+     *
+     * @param i the index, from 0 to getTargetCount() - 1
+     * @return the target
+     */
+    public Entity getTarget(int i) {
+        return friendlyAction ? friendly[i] : hostile[i];
+    }
+
+    /**
+     * Checks if the piece on a cell is a valid target.
+     *
+     * @param x the x
+     * @param y the y
+     * @return true, if the cell holds a valid target
+     */
+    public boolean isTarget(int x, int y) {
+        for(int i = 0; i < getTargetCount(); i ++) {
+            Entity e = getTarget(i);
+            if(e.getXPos() == x && e.getYPos() == y) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Gets the number of friendly pieces in range, including the acting piece.
+     *
+     * @return the friendly count
+     */
+    public int getFriendlyCount() {
+        return friendlyCount;
+    }
+
+    /**
+     * Gets a friendly piece in range.
+     *
+     * @param i the index, from 0 to getFriendlyCount() - 1
+     * @return the piece
+     */
+    public Entity getFriendly(int i) {
+        return friendly[i];
+    }
+
+    /**
+     * Gets the number of hostile pieces in range.
+     *
+     * @return the hostile count
+     */
+    public int getHostileCount() {
+        return hostileCount;
+    }
+
+    /**
+     * Gets a hostile piece in range.
+     *
+     * @param i the index, from 0 to getHostileCount() - 1
+     * @return the piece
+     */
+    public Entity getHostile(int i) {
+        return hostile[i];
+    }
+}
@@ -13,8 +13,11 @@ import java.util.ArrayList;
  */
 public class Team implements TeamInterface {
 
-    /** The Constant NUM_PIECES_PER_TEAM. */
-    private static final int NUM_PIECES_PER_TEAM = Consts.NUM_PIECES_PER_TEAM;
+    /** The number of pieces in this team. */
+    private final int numPieces;
+
+    /** The entity factory of the game. */
+    private final EntityFlyweightFactory fwFactory;
     
     /** The team members. */
     private ArrayList<Entity> members;
@@ -29,9 +32,13 @@ public class Team implements TeamInterface {
      * Instantiates a new team.
      *
      * @param type the type
+     * @param fwFactory the entity factory of the game
+     * @param numPieces the number of pieces in this team
      */
-    public Team(TeamTypes type) {
+    public Team(TeamTypes type, EntityFlyweightFactory fwFactory, int numPieces) {
         this.type = type;
+        this.fwFactory = fwFactory;
+        this.numPieces = numPieces;
         members = new ArrayList<Entity>();
         initialise();
     }
@@ -43,13 +50,12 @@ public class Team implements TeamInterface {
     @Override
     public void initialise() {
 
-        EntityFlyweightFactory fwFactory = GameBoard.fwFactory;
         Entity entity;
 
         switch (type) {
             case Human:
                 race = Consts.HUMAN;
-                for(int i=1; i<NUM_PIECES_PER_TEAM+1; i++){
+                for(int i=1; i<numPieces+1; i++){
                     entity = fwFactory.createEntity(ProfessionTypes.SOLDIER);
                     entity.setName(race + i);
                     if(i == 1) entity = fwFactory.createProfessionalEntity(ProfessionTypes.COMMANDER, entity);
@@ -58,7 +64,7 @@ public class Team implements TeamInterface {
                 break;
             case Alien:
                 race = Consts.ALIEN;
-                for(int i=1; i<NUM_PIECES_PER_TEAM+1; i++){
+                for(int i=1; i<numPieces+1; i++){
                     entity = fwFactory.createEntity(ProfessionTypes.SPAWN);
                     entity.setName(race + i);
                     if(i == 1) entity = fwFactory.createProfessionalEntity(ProfessionTypes.CHIEF, entity);
@@ -4,13 +4,66 @@ public class TeamManager {
 
     private Team teams[] = new Team[TeamTypes.values().length];
 
+    // Position -> entity index, kept up to date by Entity.setPos()
+    private OccupancyGrid occupancy;
 
-    public TeamManager() {
+    private int boardSize;
+
+    // Struct-of-arrays stats of all members, null unless enabled in the settings
+    private EntityStore store;
+
+
+    public TeamManager(GameSettings settings, EntityFlyweightFactory fwFactory) {
         int i = 0;
         for (TeamTypes type : TeamTypes.values()) {
-            teams[i] = new Team(type);
+            teams[i] = new Team(type, fwFactory, settings.getNumPiecesPerTeam());
             i ++;
         }
+        boardSize = settings.getBoardSize();
+        occupancy = new OccupancyGrid(boardSize);
+        // Pieces are registered in the index once they are dispatched
+        for (Team t : teams) {
+            for (Entity e : t.getMembers()) {
+                e.setOccupancy(occupancy, e);
+            }
+        }
+        if (settings.isEntityStoreEnabled()) {
+            attachStore();
+        }
+    }
+
+    private void attachStore() {
+        store = new EntityStore(teams.length * teams[0].size());
+        for (Team t : teams) {
+            for (Entity e : t.getMembers()) {
+                e.attachStore(store);
+            }
+        }
+    }
+
+    public EntityStore getStore() {
+        return store;
+    }
+
+    /**
+     * Rebuilds the spatial index from the current team members,
+     * e.g. after teams have been replaced by a loaded game.
+     *
+     * @param boardSize the board size of the members' game
+     */
+    public void reindex(int boardSize) {
+        this.boardSize = boardSize;
+        occupancy = new OccupancyGrid(boardSize);
+        for (Team t : teams) {
+            for (Entity e : t.getMembers()) {
+                e.setOccupancy(occupancy, e);
+                occupancy.put(e.getXPos(), e.getYPos(), e);
+            }
+        }
+        // Loaded members are plain objects, move them into a new store
+        if (store != null) {
+            attachStore();
+        }
     }
 
     public Team getTeam(int i) {
@@ -33,6 +86,10 @@ public class TeamManager {
     }
 
     public void resetTeamMoved(int i) {
+        if (store != null) {
+            store.resetMoved(i);
+            return;
+        }
         for (Entity e : teams[i].getMembers()) {
             e.unsetMoved();
         }
@@ -43,17 +100,16 @@ public class TeamManager {
     }
 
     public boolean isTeamsTurnFinished(int i) {
-
+        if (store != null) return store.isAnyMoved(i);
         return teams[i].isTeamsTurnFinished();
     }
 
+    public OccupancyGrid getOccupancy() {
+        return occupancy;
+    }
+
     public Entity getEntityByXY(int x, int y) {
-        Entity e = null;
-        for(Team t:teams) {
-            e = t.getEntityByXY(x,y);
-            if(e != null) return e;
-        }
-        return e;
+        return occupancy.get(x, y);
     }
 
     public Entity getEntityByName(String name) {
@@ -66,12 +122,17 @@ public class TeamManager {
     }
 
     public void setEntityByXY(int x, int y, Entity entity) {
+        Entity old = occupancy.get(x, y);
+        if(old != null) old.setOccupancy(null, null);
         for(Team t:teams) {
             t.setEntityByXY(x,y,entity);
         }
+        entity.setOccupancy(occupancy, entity);
+        occupancy.put(x, y, entity);
     }
 
     public boolean isTeamDefeated(int i) {
+        if (store != null) return store.isDefeated(i, teams[i].get(0).getStoreId());
         return teams[i].isTeamDefeated();
     }
 }
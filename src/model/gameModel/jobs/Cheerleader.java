@@ -40,4 +40,10 @@ public class Cheerleader extends ProfessionDecorator {
 		invokeSkill(new CheerDance(STRENGTH_AMOUNT, DEFENSE_AMOUNT, 
 				AGILITY_AMOUNT, subject),target);
 	}
+
+	@Override
+	public boolean isFriendlySkill() {
+		return true;
+	}
+
 }
@@ -36,4 +36,9 @@ public class Defender extends ProfessionDecorator {
 		invokeSkill(new GreatWall(AMOUNT, subject), target);
 	}
 
+	@Override
+	public boolean isFriendlySkill() {
+		return true;
+	}
+
 }
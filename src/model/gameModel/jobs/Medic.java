@@ -37,4 +37,9 @@ public class Medic extends ProfessionDecorator {
 		invokeSkill(new Heal(50, subject), target);
 	}
 
+	@Override
+	public boolean isFriendlySkill() {
+		return true;
+	}
+
 }
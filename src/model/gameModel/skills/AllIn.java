@@ -16,24 +16,10 @@ public class AllIn extends Command {
     @Override
     public void execute(Entity target) {
     	this.target = target;
-        oldHp = target.getCurrentHP();
         target.beAttacked(damage);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setCurrentHP(oldHp);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "All In " + target.getName();
@@ -16,32 +16,12 @@ public class AreaBlast extends Command {
 	@Override
 	public void execute(Entity target) {
 	  	this.target = target;
-    	oldHp = target.getCurrentHP();
-        oldStr = target.getStrength();
-        oldDef = target.getDefense();
 
         target.beAttacked(damage);
     	target.beStrengthAttacked(damage);
     	target.beDefenseAttacked(damage);
         notifySubject(subject);
 	}
-	
-    @Override
-    public void undo() {
-        if (target != null) {
-
-            target.setCurrentHP(oldHp);
-            target.setStrength(oldStr);
-            target.setDefense(oldDef);
-
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
 
     @Override
     public String toString() {
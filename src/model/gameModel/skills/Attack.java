@@ -18,25 +18,11 @@ public class Attack extends Command {
 
     @Override
     public void execute(Entity target) {
-        oldHp = target.getCurrentHP();
         target.beAttacked(damage);
         this.target = target;
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setCurrentHP(oldHp);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Attack " + target.getName();
@@ -20,28 +20,10 @@ public class CheerDance extends Command {
     public void execute(Entity target) {
         //target.setVisibility(Visibility.INVISIBLE);
     	this.target = target;
-        oldStr = target.getStrength();
-        oldDef = target.getDefense();
-        oldDex = target.getAgility();
         target.beCheered(strengthAmt, defenseAmt, agilityAmt);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setStrength(oldStr);
-            target.setDefense(oldDef);
-            target.setAgility(oldDex);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Cheer " + target.getName();
@@ -16,25 +16,14 @@ import model.gameModel.ObservationSubject;
  * Client: Entity.class and its subclasses
  * Command object can be created in client instance
  * then encapsulate parameters that needed for an
- * command. It includes previous state of a target
- * object and reference of target itself.
+ * command. It includes a reference of the target
+ * once executed. Undo and redo are done on mementos
+ * and the command journal of GameBoard.
  *
  */
 
 public abstract class Command implements InvokeObservableInterface {
 
-    /** The previous hp. */
-    int oldHp;
-    
-    /** The previous strength. */
-    int oldStr;
-    
-    /** The previous defence value. */
-    int oldDef;
-    
-    /** The previous agility value. */
-    int oldDex;
-
     /** The target entity that command invokes on. */
     Entity target;
 
@@ -49,16 +38,6 @@ public abstract class Command implements InvokeObservableInterface {
      */
     public abstract void execute(Entity target);
 
-    /**
-     * Undo.
-     */
-    public abstract void undo();
-
-    /**
-     * Redo.
-     */
-    public abstract void redo();
-
     /**
      * To string.
      *
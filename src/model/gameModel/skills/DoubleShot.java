@@ -17,27 +17,11 @@ public class DoubleShot extends Command {
     @Override
     public void execute(Entity target) {
     	this.target = target;
-        oldHp = target.getCurrentHP();
-        oldDef = target.getDefense();
         target.beDefenseAttacked(defenseDamage);
     	target.beAttacked(damage);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setCurrentHP(oldHp);
-            target.setDefense(oldDef);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
     	return "Double Shot " + target.getName();
@@ -18,24 +18,10 @@ public class EyesOfStone extends Command {
     public void execute(Entity target) {
         //target.setVisibility(Visibility.INVISIBLE);
     	this.target = target;
-        oldHp = target.getCurrentHP();
         target.setCurrentHP(remainder);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setCurrentHP(oldHp);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
     	return "Eyes of Stone " + target.getName();
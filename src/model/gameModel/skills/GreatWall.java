@@ -16,24 +16,10 @@ public class GreatWall extends Command {
     public void execute(Entity target) {
         //target.setVisibility(Visibility.INVISIBLE);
     	this.target = target;
-    	oldDef = target.getDefense();
         target.beDefended(amount);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setDefense(oldDef);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Great Wall " + target.getName();
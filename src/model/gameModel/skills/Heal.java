@@ -5,7 +5,6 @@ import model.gameModel.ObservationSubject;
 
 public class Heal extends Command {
 	
-	private int oldHP;
 	private int amount;
 	private Entity target;
 	
@@ -17,24 +16,10 @@ public class Heal extends Command {
 	@Override
 	public void execute(Entity target) {
 		this.target = target;
-		oldHP = target.getCurrentHP();
 		target.beHealed(amount);
 		notifySubject(subject);
 	}
 
-	@Override
-	public void undo() {
-        if (target != null) {
-			target.setCurrentHP(oldHp);
-        }
-	}
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Heal " + target.getName();
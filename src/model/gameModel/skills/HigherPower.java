@@ -20,27 +20,11 @@ public class HigherPower extends Command {
 	public void execute(Entity target) {
         //target.setVisibility(Visibility.INVISIBLE);
     	this.target = target;
-        oldStr = target.getStrength();
-        oldDef = target.getDefense();
         target.beStrengthAttacked(strengthDamage);
         target.beDefenseAttacked(defenseDamage);
         notifySubject(subject);
   
 	}
-    
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setStrength(oldStr);
-            target.setDefense(oldDef);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
 
     @Override
     public String toString() {
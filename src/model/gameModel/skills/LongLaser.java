@@ -17,24 +17,10 @@ public class LongLaser extends Command {
     public void execute(Entity target) {
         //target.setVisibility(Visibility.INVISIBLE);
     	this.target = target;
-        oldHp = target.getCurrentHP();
         target.beAttacked(damage);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setCurrentHP(oldHp);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Long Laser " + target.getName();
@@ -21,30 +21,12 @@ public class Minefield extends Command {
     public void execute(Entity target) {
         //target.setVisibility(Visibility.INVISIBLE);
     	this.target = target;
-        oldHp = target.getCurrentHP();
-        oldStr = target.getStrength();
-        oldDef = target.getDefense();
         target.beAttacked(hpDamage);
         target.beStrengthAttacked(strengthDamage);
         target.beDefenseAttacked(defenseDamage);
         notifySubject(subject);
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setCurrentHP(oldHp);
-            target.setStrength(oldStr);
-            target.setDefense(oldDef);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Minefield " + target.getName();
@@ -12,7 +12,6 @@ import model.gameModel.Point;
  */
 public class Move extends Command implements Serializable{
 
-    private int originX, originY;
     private int destX, destY;
     private Entity target;
 
@@ -23,25 +22,10 @@ public class Move extends Command implements Serializable{
 
     @Override
     public void execute(Entity target) {
-        originX = target.getXPos();
-        originY = target.getYPos();
         target.setPos(destX, destY);
         this.target = target;
     }
 
-    @Override
-    public void undo() {
-        if (target != null) {
-            target.setPos(originX, originY);
-        }
-    }
-
-    @Override
-    public void redo() {
-        if (target != null) {
-        }
-    }
-
     @Override
     public String toString() {
         return "Move to x:" + destX + " y:" + destY;
@@ -50,6 +50,16 @@ public abstract class ProfessionDecorator extends Entity implements EntityInterf
      */
     public abstract void invoke(Entity target, ObservationSubject subject);
 
+    /**
+     * Checks if the skill of this profession targets friendly pieces,
+     * e.g. Heal, instead of hostile ones.
+     *
+     * @return true, if the skill targets the own team
+     */
+    public boolean isFriendlySkill() {
+        return false;
+    }
+
     /**
      * Invoke skill.
      *
@@ -58,7 +68,6 @@ public abstract class ProfessionDecorator extends Entity implements EntityInterf
      */
     public void invokeSkill(Command command, Entity target) {
         command.execute(target);
-        entity.undoStack.offerLast(command);
         setMoved();
     }
 
@@ -78,17 +87,6 @@ public abstract class ProfessionDecorator extends Entity implements EntityInterf
         invokeSkill(new Move(x, y), target);
     }
 
-    /**
-     * Undo.
-     */
-    public void undoLastInvoke() {
-
-        if (!entity.undoStack.isEmpty()) {
-            Command previousInvoke = entity.undoStack.pollLast();
-            previousInvoke.undo();
-        }
-    }
-
     @Override
     public boolean isUpgradable() {
         return upgradable;
@@ -398,6 +396,41 @@ public abstract class ProfessionDecorator extends Entity implements EntityInterf
         entity.setPos(x, y);
     }
 
+    /**
+     * Sets the occupancy.
+     * The basic entity owns the position, so it is the one
+     * registered in the index on behalf of this decorator.
+     *
+     * @param grid the index
+     * @param occupant the occupant
+     */
+    @Override
+    public void setOccupancy(OccupancyGrid grid, Entity occupant) {
+        entity.setOccupancy(grid, occupant);
+    }
+
+    /**
+     * Attach store.
+     * The basic entity owns the stats, so its slot is shared
+     * by this decorator.
+     *
+     * @param entityStore the store
+     */
+    @Override
+    public void attachStore(EntityStore entityStore) {
+        entity.attachStore(entityStore);
+    }
+
+    /**
+     * Gets the store id.
+     *
+     * @return the entity id
+     */
+    @Override
+    public int getStoreId() {
+        return entity.getStoreId();
+    }
+
     /**
      * Gets the x pos.
      *
@@ -3,8 +3,11 @@ package model.graphicModel;
 
 import resources.Consts;
 
-import java.awt.*;
 import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.RecursiveAction;
 
 /**
  * Created by Human v Alien Team on 2016/4/14.
@@ -34,6 +37,34 @@ public class Art {
     public static final Bitmap[][] FONT16X16 = cut(RESOURCE_PATH + FONT_16X16_FILE,
             FONT_SIZE[FONT_16X16_INDEX][WIDTH_INDEX],
             FONT_SIZE[FONT_16X16_INDEX][LENGTH_INDEX]);
+
+    /** The side in board pixels of a block of the tile layer. */
+    private static final int BLOCK_SIZE = 256;
+    /** The most blocks kept, a few screens worth, the least recently shown go first. */
+    private static final int MAX_BLOCKS =
+            4 * (Consts.BOARD_WIDTH / BLOCK_SIZE + 2) * (Consts.BOARD_HIGHT / BLOCK_SIZE + 2);
+    /** The tile seed used unless a game asks for its own. */
+    private static final long SESSION_TILE_SEED = new Random().nextLong();
+    /** The blocks of the tile layer keyed by board size, tile seed, cell size and block. */
+    private static final LinkedHashMap<String, Bitmap> blocks =
+            new LinkedHashMap<String, Bitmap>(MAX_BLOCKS * 4 / 3 + 1, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Bitmap> eldest) {
+                    return size() > MAX_BLOCKS;
+                }
+            };
+    /** The background image without tiles. */
+    private static Bitmap backgroundImage;
+    /** The two backgrounds, one is shown while the other is composed. */
+    private static final Bitmap[] screens = new Bitmap[2];
+    private static int screen;
+    // The background shown: its tile seed, cell size and the board pixel
+    // in the top left corner of the map
+    private static long tileSeed = SESSION_TILE_SEED;
+    private static int viewCellSize = Consts.getRectsize();
+    private static int viewX, viewY;
     public static Bitmap background = getBackGround();
 
     private static Bitmap[][] cut(String string, int w, int h) {
@@ -56,41 +87,169 @@ public class Art {
         return result;
     }
 
+    /**
+     * Gets the background of the current board size, tile seed and view.
+     * The tiles are kept in blocks of the board at the cell size, so a
+     * pan only draws the blocks it brings into the map, and the view
+     * is the offset the blocks are copied to the background at.
+     *
+     * @return the background, a new object whenever the view changed
+     */
     private static Bitmap getBackGround() {
-        BufferedImage image = ImageManager.getBackGroundImage("background.png");
-        int w = image.getWidth();
-        int h = image.getHeight();
-        Bitmap result = new Bitmap(w, h);
-        image.getRGB(0, 0, w, h, result.pixels, 0, w);
-        renderTiles(result);
+        if (backgroundImage == null) {
+            BufferedImage image = ImageManager.getBackGroundImage("background.png");
+            backgroundImage = new Bitmap(image.getWidth(), image.getHeight());
+            image.getRGB(0, 0, image.getWidth(), image.getHeight(), backgroundImage.pixels, 0, image.getWidth());
+        }
+        screen = 1 - screen;
+        if (screens[screen] == null) {
+            screens[screen] = new Bitmap(backgroundImage.width, backgroundImage.height);
+        }
+        Bitmap result = screens[screen];
+        System.arraycopy(backgroundImage.pixels, 0, result.pixels, 0, result.pixels.length);
+        // Cells of no pixel, the board is too large to be shown whole
+        if (viewCellSize < 1) return result;
+
+        // The blocks under the map, the ones not kept are drawn in parallel
+        int size = Consts.getBSIZE();
+        // A tile of the last cell may reach into the cell after the board
+        int last = ((size + 1) * viewCellSize - 1) / BLOCK_SIZE;
+        int bx0 = Math.max(Math.floorDiv(viewX, BLOCK_SIZE), 0);
+        int bx1 = Math.min(Math.floorDiv(viewX + Consts.BOARD_WIDTH - 1, BLOCK_SIZE), last);
+        int by0 = Math.max(Math.floorDiv(viewY, BLOCK_SIZE), 0);
+        int by1 = Math.min(Math.floorDiv(viewY + Consts.BOARD_HIGHT - 1, BLOCK_SIZE), last);
+        if (bx0 > bx1 || by0 > by1) return result;
+        int columns = bx1 - bx0 + 1;
+        Bitmap[] shown = new Bitmap[columns * (by1 - by0 + 1)];
+        Bitmap[] missing = new Bitmap[shown.length];
+        int[] missingX = new int[shown.length];
+        int[] missingY = new int[shown.length];
+        int count = 0;
+        for (int bx = bx0; bx <= bx1; bx++) {
+            for (int by = by0; by <= by1; by++) {
+                String key = size + ";" + tileSeed + ";" + viewCellSize + ";" + bx + ";" + by;
+                Bitmap block = blocks.get(key);
+                if (block == null) {
+                    block = new Bitmap(BLOCK_SIZE, BLOCK_SIZE);
+                    missing[count] = block;
+                    missingX[count] = bx;
+                    missingY[count] = by;
+                    count++;
+                    blocks.put(key, block);
+                }
+                shown[(by - by0) * columns + bx - bx0] = block;
+            }
+        }
+        if (count > 0) {
+            // Scale the tiles before the blocks share them
+            Bitmap[] tiles = new Bitmap[ImageManager.NUM_TILES + 1];
+            for (int t = 1; t < tiles.length; t++) {
+                tiles[t] = SpriteCache.getTileSprite(t, viewCellSize);
+            }
+            RenderPool.get().invoke(new TileBlocks(missing, missingX, missingY, tileSeed, tiles,
+                    viewCellSize, size, 0, count));
+        }
+
+        result.setClip(Consts.MAP_X_OFFSET, Consts.MAP_Y_OFFSET, Consts.BOARD_WIDTH, Consts.BOARD_HIGHT);
+        for (int k = 0; k < shown.length; k++) {
+            int bx = bx0 + k % columns;
+            int by = by0 + k / columns;
+            result.render(shown[k], Consts.MAP_X_OFFSET + bx * BLOCK_SIZE - viewX,
+                    Consts.MAP_Y_OFFSET + by * BLOCK_SIZE - viewY);
+        }
+        result.resetClip();
         return result;
     }
 
-    private static void renderTiles(Bitmap bkg) {
-        for (int i = 0; i < Consts.getBSIZE(); i++) {
-            for (int j = 0; j < Consts.getBSIZE(); j++) {
-
-                // If this cell has a entity in it
-                // To draw the image of a piece
-                BufferedImage tileImge = ImageManager.getRandomTiles();
-                BufferedImage image = ImageManager.resizeImage(tileImge, (double) Consts.getRectsize() / (double) tileImge.getWidth());
-                int w = image.getWidth();
-                int h = image.getHeight();
-                Bitmap result = new Bitmap(w, h);
-                // To make border line for tiles
-                for(int k = 0; k < Consts.getRectsize(); k ++) {
-                    image.setRGB(0, k, Color.LIGHT_GRAY.getRGB());
-                    image.setRGB(k, 0, Color.LIGHT_GRAY.getRGB());
-                }
+    /**
+     * Draws the tiles of a range of blocks of the tile layer, split in
+     * halves down to single blocks. The tile of a cell only depends on
+     * the seed and the cell, the same as on the game board. A scaled
+     * tile may reach a little into the next cell, so each block draws
+     * the cells just above and left of it too, in the same order as one
+     * pass over the whole board would. It is given all it needs, the
+     * pool threads must not wait for Art to be initialized.
+     */
+    private static class TileBlocks extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Bitmap[] blocks;
+        private final int[] blockX, blockY;
+        private final long seed;
+        private final Bitmap[] tiles;
+        private final int cellSize;
+        private final int size;
+        private final int from, to;
 
-                image.getRGB(0, 0, w, h, result.pixels, 0, w);
-                bkg.render(result, i * Consts.getRectsize() + Consts.MAP_X_OFFSET, j * Consts.getRectsize() + Consts.MAP_Y_OFFSET);
+        TileBlocks(Bitmap[] blocks, int[] blockX, int[] blockY, long seed, Bitmap[] tiles,
+                   int cellSize, int size, int from, int to) {
+            this.blocks = blocks;
+            this.blockX = blockX;
+            this.blockY = blockY;
+            this.seed = seed;
+            this.tiles = tiles;
+            this.cellSize = cellSize;
+            this.size = size;
+            this.from = from;
+            this.to = to;
+        }
 
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new TileBlocks(blocks, blockX, blockY, seed, tiles, cellSize, size, from, mid),
+                        new TileBlocks(blocks, blockX, blockY, seed, tiles, cellSize, size, mid, to));
+                return;
+            }
+            int x = blockX[from] * BLOCK_SIZE;
+            int y = blockY[from] * BLOCK_SIZE;
+            int i0 = Math.max(x / cellSize - 1, 0);
+            int i1 = Math.min((x + BLOCK_SIZE - 1) / cellSize, size - 1);
+            int j0 = Math.max(y / cellSize - 1, 0);
+            int j1 = Math.min((y + BLOCK_SIZE - 1) / cellSize, size - 1);
+            Bitmap block = blocks[from];
+            for (int i = i0; i <= i1; i++) {
+                for (int j = j0; j <= j1; j++) {
+                    block.render(tiles[ImageManager.getTileIndex(seed, i, j)], i * cellSize - x, j * cellSize - y);
+                }
             }
         }
     }
 
+    /**
+     * Shows the whole board of the current board size, with the tiles
+     * of this session.
+     */
     public static void resetBackground() {
+        resetBackground(SESSION_TILE_SEED);
+    }
+
+    /**
+     * Shows the whole board of the current board size, with the tiles
+     * picked by a seed, e.g. the one of the game.
+     *
+     * @param seed the seed of the tile pick
+     */
+    public static void resetBackground(long seed) {
+        tileSeed = seed;
+        viewCellSize = Consts.getRectsize();
+        viewX = 0;
+        viewY = 0;
+        background = getBackGround();
+    }
+
+    /**
+     * Shows a part of the board, e.g. after it was zoomed or panned.
+     *
+     * @param cellSize the cell size in pixels
+     * @param x the board pixel in the top left corner of the map
+     * @param y the board pixel in the top left corner of the map
+     */
+    public static void setView(int cellSize, int x, int y) {
+        viewCellSize = cellSize;
+        viewX = x;
+        viewY = y;
         background = getBackGround();
     }
 }
@@ -9,10 +9,54 @@ public class Bitmap {
     public int width, height;
     public int[] pixels;
 
+    // Clip rectangle of render(), the whole bitmap unless set
+    private int clipX0, clipY0, clipX1, clipY1;
+
     public Bitmap(int w, int h) {
         this.width = w;
         this.height = h;
         pixels = new int[w * h];
+        resetClip();
+    }
+
+    /**
+     * Instantiates a view of another bitmap. It draws on the same pixels
+     * but has a clip of its own, so threads can render disjoint parts of
+     * one bitmap at the same time.
+     *
+     * @param target the bitmap to draw on
+     */
+    public Bitmap(Bitmap target) {
+        this.width = target.width;
+        this.height = target.height;
+        this.pixels = target.pixels;
+        resetClip();
+    }
+
+    /**
+     * Limits render() to a rectangle, so a part of the bitmap can be
+     * drawn again without touching the pixels around it.
+     *
+     * @param x the x
+     * @param y the y
+     * @param w the width
+     * @param h the height
+     */
+    public void setClip(int x, int y, int w, int h) {
+        clipX0 = Math.max(x, 0);
+        clipY0 = Math.max(y, 0);
+        clipX1 = Math.min(x + w, width);
+        clipY1 = Math.min(y + h, height);
+    }
+
+    /**
+     * Lets render() draw on the whole bitmap again.
+     */
+    public void resetClip() {
+        clipX0 = 0;
+        clipY0 = 0;
+        clipX1 = width;
+        clipY1 = height;
     }
 
     public void color(int color) {
@@ -24,10 +68,10 @@ public class Bitmap {
         int x1 = x0 + bmp.width;
         int y0 = y;
         int y1 = y0 + bmp.height;
-        if(x0 < 0) x0 = 0;
-        if(x1 > width) x1 = width;
-        if(y0 < 0) y0 = 0;
-        if(y1 > height) y1 = height;
+        if(x0 < clipX0) x0 = clipX0;
+        if(x1 > clipX1) x1 = clipX1;
+        if(y0 < clipY0) y0 = clipY0;
+        if(y1 > clipY1) y1 = clipY1;
         int ww = x1 - x0;
 
         for(int yy = y0; yy < y1; yy ++) {
@@ -14,11 +14,17 @@ public class ImageManager {
 	private static final String WEAPONS = "weapons/";
 	private static final String RESOURCE_PATH = "/resources/";
 
+	/** The number of tile images. */
+	public static final int NUM_TILES = 8;
+
+	/** The source of random tiles, shared instead of one per call. */
+	private static final Random TILE_RANDOM = new Random();
+
 	private static HashMap<String,BufferedImage> cache = new HashMap<String,BufferedImage>();
 
 	private static void load(String name) throws Exception {
 
-		BufferedImage b = ImageIO.read(ImageManager.class.getClass().getResource(name));
+		BufferedImage b = ImageIO.read(ImageManager.class.getResource(name));
 		cache.put(name, b);
 
 	}
@@ -43,13 +49,55 @@ public class ImageManager {
     }
 	
 	public static BufferedImage getRandomTiles() {
-		Random rand = new Random();
-		String filename = ".png";
+		return getTile(getRandomTileIndex());
+	}
+
+	/**
+	 * Picks a random tile, plain grass (tile 1) being the most common.
+	 *
+	 * @return the tile index, from 1 to NUM_TILES
+	 */
+	public static int getRandomTileIndex() {
+		return getRandomTileIndex(TILE_RANDOM);
+	}
 
+	/**
+	 * Picks a random tile from a given source, so the same seed gives
+	 * the same tiles.
+	 *
+	 * @param rand the source of randomness
+	 * @return the tile index, from 1 to NUM_TILES
+	 */
+	public static int getRandomTileIndex(Random rand) {
 		int  n = rand.nextInt(38) + 1;
-		if(n <= 30) filename = 1 + filename;
-		if(n > 30) filename = n % 30 + filename;
-		return getImage(RESOURCE_PATH+TILES+filename);
+		if(n <= 30) return 1;
+		return n % 30;
+	}
+
+	/**
+	 * Picks the tile of a cell from a seed, with the same odds as
+	 * getRandomTileIndex(). A seed and a cell always give the same
+	 * tile, whatever order the cells are picked in, so the tiles of a
+	 * board can be picked lazily or in parallel.
+	 *
+	 * @param seed the seed of the game
+	 * @param x the x of the cell
+	 * @param y the y of the cell
+	 * @return the tile index, from 1 to NUM_TILES
+	 */
+	public static int getTileIndex(long seed, int x, int y) {
+		// The mixing function of SplittableRandom over the seed and the cell
+		long z = seed + ((long) x << 32 | y & 0xFFFFFFFFL) * 0x9E3779B97F4A7C15L;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		z = z ^ (z >>> 31);
+		int n = (int) ((z >>> 1) % 38) + 1;
+		if(n <= 30) return 1;
+		return n % 30;
+	}
+
+	public static BufferedImage getTile(int index) {
+		return getImage(RESOURCE_PATH+TILES+index+".png");
 	}
 
 	public static BufferedImage getCharSkin(String name) {
@@ -76,4 +124,4 @@ public class ImageManager {
         return after;
     }
 
-}
\ No newline at end of file
+}
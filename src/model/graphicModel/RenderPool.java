@@ -0,0 +1,26 @@
+package model.graphicModel;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The fork-join pool shared by the parallel renderers, e.g. the bands
+ * of the game screen and the tiles of the background. It is created
+ * on first use, so a game that never renders in parallel starts no
+ * threads.
+ */
+public class RenderPool {
+
+    private static ForkJoinPool pool;
+
+    private RenderPool() {}
+
+    /**
+     * Gets the pool.
+     *
+     * @return the pool
+     */
+    public static synchronized ForkJoinPool get() {
+        if (pool == null) pool = new ForkJoinPool();
+        return pool;
+    }
+}
@@ -0,0 +1,125 @@
+package model.graphicModel;
+
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Cache of character and tile sprites scaled to the cell size of the
+ * board.
+ *
+ * Scaling a character skin builds a new AffineTransformOp, a new
+ * BufferedImage and a new Bitmap, which is far too much to do for
+ * every piece on every frame. Each profession is scaled once per
+ * cell size and the ready-to-blit Bitmap is kept here. Tiles are
+ * kept the same way, with their border line already drawn, so a
+ * background needs one scale per tile image instead of one per cell.
+ * The cache is dropped whenever the cell size changes, i.e. when a
+ * game with another board size is started or the board is zoomed.
+ */
+public class SpriteCache {
+
+    /** The factor of a character sprite to the cell size. */
+    private static final double CHAR_RESIZE_FACTOR = 0.9;
+
+    /** The scaled sprites keyed by profession name. */
+    private static HashMap<String, Bitmap> charSprites = new HashMap<String, Bitmap>();
+
+    /** The scaled tiles by tile index. */
+    private static Bitmap[] tileSprites = new Bitmap[ImageManager.NUM_TILES + 1];
+
+    /** The cell size the cached sprites are scaled to. */
+    private static int rectSize = -1;
+
+    private SpriteCache() {}
+
+    /**
+     * Gets the sprite of a profession scaled to a cell size.
+     *
+     * @param professionName the profession name
+     * @param size the cell size in pixels
+     * @return the sprite
+     */
+    public static Bitmap getCharSprite(String professionName, int size) {
+        checkSize(size);
+        Bitmap sprite = charSprites.get(professionName);
+        if (sprite == null) {
+            sprite = scale(ImageManager.getCharSkin(professionName), size);
+            charSprites.put(professionName, sprite);
+        }
+        return sprite;
+    }
+
+    /**
+     * Gets a tile scaled to a cell size, with a light gray border line
+     * on its top and left.
+     *
+     * @param index the tile index, from 1 to ImageManager.NUM_TILES
+     * @param size the cell size in pixels
+     * @return the tile
+     */
+    public static Bitmap getTileSprite(int index, int size) {
+        checkSize(size);
+        Bitmap sprite = tileSprites[index];
+        if (sprite == null) {
+            sprite = scaleTile(ImageManager.getTile(index), size);
+            tileSprites[index] = sprite;
+        }
+        return sprite;
+    }
+
+    private static void checkSize(int size) {
+        if (size != rectSize) {
+            invalidate();
+            rectSize = size;
+        }
+    }
+
+    /**
+     * Drops all cached sprites.
+     */
+    public static void invalidate() {
+        charSprites.clear();
+        Arrays.fill(tileSprites, null);
+        rectSize = -1;
+    }
+
+    private static Bitmap scale(BufferedImage skin, int size) {
+        BufferedImage image = ImageManager.resizeImage(skin,
+                CHAR_RESIZE_FACTOR * ((double) size / (double) skin.getWidth()));
+        int w = image.getWidth();
+        int h = image.getHeight();
+        Bitmap result = new Bitmap(w, h);
+        image.getRGB(0, 0, w, h, result.pixels, 0, w);
+        return result;
+    }
+
+    private static Bitmap scaleTile(BufferedImage tile, int size) {
+        BufferedImage image = ImageManager.resizeImage(tile, (double) size / (double) tile.getWidth());
+        int w = image.getWidth();
+        int h = image.getHeight();
+        int border = Color.LIGHT_GRAY.getRGB();
+        for (int k = 0; k < size; k++) {
+            if (k < h) image.setRGB(0, k, border);
+            if (k < w) image.setRGB(k, 0, border);
+        }
+        // Only the opaque part is ever drawn, leave out the transparent
+        // rows and columns on the right and bottom
+        int[] pixels = image.getRGB(0, 0, w, h, null, 0, w);
+        int x1 = 1, y1 = 1;
+        for (int y = 0; y < h; y++) {
+            for (int x = 0; x < w; x++) {
+                if (pixels[y * w + x] < 0) {
+                    x1 = Math.max(x1, x + 1);
+                    y1 = Math.max(y1, y + 1);
+                }
+            }
+        }
+        Bitmap result = new Bitmap(x1, y1);
+        for (int y = 0; y < y1; y++) {
+            System.arraycopy(pixels, y * w, result.pixels, y * x1, x1);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,137 @@
+package model.simulation;
+
+import model.gameModel.GameBoard;
+import model.gameModel.GameSettings;
+import model.gameModel.HeadlessGameListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Plays a batch of independent computer-vs-computer games on all cores.
+ *
+ * Each game has its own GameBoard, teams and entity factory and is
+ * driven by RandomPlayers through a HeadlessGameListener, so games
+ * share no state and no user interface is created.
+ *
+ * Usage: BatchMatchRunner [games] [board size] [pieces per team] [weapons] [max turns] [entity store]
+ */
+public class BatchMatchRunner {
+
+    /** Mixed into the seed of a game to seed its players apart from the board. */
+    private static final long PLAYER_SEED_MIX = 0x9E3779B97F4A7C15L;
+
+    /** The settings every game is played with. */
+    private final GameSettings settings;
+
+    /** The number of turns after which a game is a draw. */
+    private final int maxTurns;
+
+    /** The pool the games are played on. */
+    private final ForkJoinPool pool;
+
+    /**
+     * Instantiates a new batch match runner using all cores.
+     *
+     * @param settings the settings every game is played with
+     * @param maxTurns the number of turns after which a game is a draw
+     */
+    public BatchMatchRunner(GameSettings settings, int maxTurns) {
+        this(settings, maxTurns, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Instantiates a new batch match runner.
+     *
+     * @param settings the settings every game is played with
+     * @param maxTurns the number of turns after which a game is a draw
+     * @param parallelism the number of games played at the same time
+     */
+    public BatchMatchRunner(GameSettings settings, int maxTurns, int parallelism) {
+        this.settings = settings;
+        this.maxTurns = maxTurns;
+        this.pool = new ForkJoinPool(parallelism);
+    }
+
+    /**
+     * Plays one game until a team wins or the turn limit is reached.
+     * The same seed always plays the same game.
+     *
+     * @param seed the seed of the board setup and the players
+     * @return the match result
+     */
+    public MatchResult playMatch(long seed) {
+        GameBoard board = new GameBoard(new HeadlessGameListener(), settings.withSeed(seed));
+        RandomPlayer player = new RandomPlayer(new Random(seed ^ PLAYER_SEED_MIX));
+        while (board.getWinner() < 0 && board.getTurn() < maxTurns) {
+            player.playTurn(board);
+        }
+        return new MatchResult(seed, board.getWinner(), board.getTurn());
+    }
+
+    /**
+     * Plays a batch of games in parallel.
+     * Game i is played with seed baseSeed + i.
+     *
+     * @param games the number of games
+     * @param baseSeed the seed of the first game
+     * @return the batch report
+     */
+    public BatchReport run(int games, long baseSeed) {
+        List<Callable<MatchResult>> tasks = new ArrayList<Callable<MatchResult>>(games);
+        for (int i = 0; i < games; i++) {
+            final long seed = baseSeed + i;
+            tasks.add(new Callable<MatchResult>() {
+                @Override
+                public MatchResult call() {
+                    return playMatch(seed);
+                }
+            });
+        }
+
+        long start = System.nanoTime();
+        List<MatchResult> results = new ArrayList<MatchResult>(games);
+        try {
+            for (Future<MatchResult> f : pool.invokeAll(tasks)) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+        }
+        return new BatchReport(results, System.nanoTime() - start);
+    }
+
+    /**
+     * Shuts down the pool of this runner.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * The main method.
+     *
+     * @param args games, board size, pieces per team, weapons, max turns, entity store, seed
+     */
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int bsize = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int pieces = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int weapons = args.length > 3 ? Integer.parseInt(args[3]) : 20;
+        int maxTurns = args.length > 4 ? Integer.parseInt(args[4]) : 1000;
+        boolean entityStore = args.length > 5 && Boolean.parseBoolean(args[5]);
+        long seed = args.length > 6 ? Long.parseLong(args[6]) : System.nanoTime();
+
+        BatchMatchRunner runner = new BatchMatchRunner(
+                new GameSettings(bsize, pieces, weapons, entityStore), maxTurns);
+        System.out.println(runner.run(games, seed));
+        runner.shutdown();
+    }
+}
@@ -0,0 +1,99 @@
+package model.simulation;
+
+import resources.Consts;
+
+import java.util.List;
+
+/**
+ * Summary of a batch of simulated games: throughput, win rates and
+ * turn counts.
+ */
+public class BatchReport {
+
+    /** The results of all games. */
+    private final List<MatchResult> results;
+
+    /** The wall clock time of the batch in nanoseconds. */
+    private final long elapsedNanos;
+
+    /** The number of wins per team. */
+    private final int[] wins = new int[Consts.NUM_TEAMS];
+
+    /** The number of games without a winner. */
+    private int draws;
+
+    /** The turn counts. */
+    private long totalTurns;
+    private int minTurns = Integer.MAX_VALUE;
+    private int maxTurns;
+
+    /**
+     * Instantiates a new batch report.
+     *
+     * @param results the results of all games
+     * @param elapsedNanos the wall clock time of the batch in nanoseconds
+     */
+    public BatchReport(List<MatchResult> results, long elapsedNanos) {
+        this.results = results;
+        this.elapsedNanos = elapsedNanos;
+        for (MatchResult r : results) {
+            if (r.getWinner() < 0) draws++;
+            else wins[r.getWinner()]++;
+            totalTurns += r.getTurns();
+            minTurns = Math.min(minTurns, r.getTurns());
+            maxTurns = Math.max(maxTurns, r.getTurns());
+        }
+    }
+
+    public List<MatchResult> getResults() {
+        return results;
+    }
+
+    public int getGames() {
+        return results.size();
+    }
+
+    public double getGamesPerSecond() {
+        return results.size() / (elapsedNanos / 1e9);
+    }
+
+    /**
+     * Gets the win rate of a team.
+     *
+     * @param team the team number
+     * @return the share of games won by the team, from 0 to 1
+     */
+    public double getWinRate(int team) {
+        return results.isEmpty() ? 0 : (double) wins[team] / results.size();
+    }
+
+    public double getDrawRate() {
+        return results.isEmpty() ? 0 : (double) draws / results.size();
+    }
+
+    public double getAverageTurns() {
+        return results.isEmpty() ? 0 : (double) totalTurns / results.size();
+    }
+
+    public int getMinTurns() {
+        return results.isEmpty() ? 0 : minTurns;
+    }
+
+    public int getMaxTurns() {
+        return maxTurns;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("Games: %d in %.3f s (%.1f games/s)%n",
+                getGames(), elapsedNanos / 1e9, getGamesPerSecond()));
+        for (int i = 0; i < wins.length; i++) {
+            sb.append(String.format("%s win rate: %.1f%%%n", Consts.TEAM_NAME[i], 100 * getWinRate(i)));
+        }
+        sb.append(String.format("Draws: %.1f%%%n", 100 * getDrawRate()));
+        sb.append(String.format("Turns: avg %.1f, min %d, max %d",
+                getAverageTurns(), getMinTurns(), getMaxTurns()));
+        return sb.toString();
+    }
+}
@@ -0,0 +1,46 @@
+package model.simulation;
+
+/**
+ * The result of one simulated game.
+ */
+public class MatchResult {
+
+    /** The seed the game was played with. */
+    private final long seed;
+
+    /** The winning team number, -1 for a draw. */
+    private final int winner;
+
+    /** The number of turns played. */
+    private final int turns;
+
+    /**
+     * Instantiates a new match result.
+     *
+     * @param seed the seed the game was played with
+     * @param winner the winning team number, -1 for a draw
+     * @param turns the number of turns played
+     */
+    public MatchResult(long seed, int winner, int turns) {
+        this.seed = seed;
+        this.winner = winner;
+        this.turns = turns;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getTurns() {
+        return turns;
+    }
+
+    @Override
+    public String toString() {
+        return "seed " + seed + ";winner " + winner + ";turns " + turns;
+    }
+}
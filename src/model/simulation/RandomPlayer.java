@@ -0,0 +1,108 @@
+package model.simulation;
+
+import model.gameModel.Entity;
+import model.gameModel.GameBoard;
+import model.gameModel.ReachabilityField;
+import model.gameModel.TargetSet;
+import model.gameModel.Team;
+
+import java.util.Random;
+
+/**
+ * A simple computer player for headless simulations.
+ *
+ * On each turn it picks a random piece of the team on move which can
+ * still act. The piece attacks an enemy in range if there is one,
+ * otherwise it moves as close as it can to the nearest enemy, around
+ * the pieces in its way. If no piece can act the turn is passed.
+ */
+public class RandomPlayer {
+
+    /** The random source of this player. */
+    private final Random rand;
+
+    /**
+     * Instantiates a new random player.
+     *
+     * @param rand the random source
+     */
+    public RandomPlayer(Random rand) {
+        this.rand = rand;
+    }
+
+    /**
+     * Plays one action for the team on move.
+     *
+     * @param board the game board
+     */
+    public void playTurn(GameBoard board) {
+        Team team = board.getTeamManager().getTeam(board.getTeamOnMove());
+        int size = team.size();
+        int start = rand.nextInt(size);
+        for (int k = 0; k < size; k++) {
+            Entity e = team.get((start + k) % size);
+            if (e.getXPos() < 0 || e.isMoved()) continue;
+            if (attackAdjacent(board, e) || moveTowardsEnemy(board, e)) return;
+        }
+        // No piece can act, give turn to next team
+        board.nextTurn();
+    }
+
+    private boolean attackAdjacent(GameBoard board, Entity e) {
+        TargetSet targets = board.getAttackTargets(e.getXPos(), e.getYPos());
+        if (targets.getTargetCount() == 0) return false;
+        Entity t = targets.getTarget(rand.nextInt(targets.getTargetCount()));
+        board.combat(e, t.getXPos(), t.getYPos());
+        return true;
+    }
+
+    private boolean moveTowardsEnemy(GameBoard board, Entity e) {
+        Entity enemy = findNearestEnemy(board, e);
+        if (enemy == null) return false;
+        int x = e.getXPos();
+        int y = e.getYPos();
+        ReachabilityField range = board.getMoveRange(x, y);
+        int size = range.size();
+        int bestX = -1, bestY = -1;
+        int bestDist = dist(x, y, enemy.getXPos(), enemy.getYPos());
+        int ties = 0;
+        // Cell 0 is the piece itself
+        for (int k = 1; k < range.getReachedCount(); k++) {
+            int i = range.getReachedCell(k) / size;
+            int j = range.getReachedCell(k) % size;
+            int d = dist(i, j, enemy.getXPos(), enemy.getYPos());
+            if (d < bestDist) {
+                bestDist = d;
+                bestX = i;
+                bestY = j;
+                ties = 1;
+            } else if (d == bestDist && bestX >= 0 && rand.nextInt(++ties) == 0) {
+                // Pick one of the equally good cells at random
+                bestX = i;
+                bestY = j;
+            }
+        }
+        if (bestX < 0) return false;
+        board.movePieceTo(x, y, bestX, bestY);
+        return true;
+    }
+
+    private Entity findNearestEnemy(GameBoard board, Entity e) {
+        Team enemies = board.getTeamManager().getTeam(1 - e.getTeam());
+        Entity nearest = null;
+        int nearestDist = Integer.MAX_VALUE;
+        for (Entity t : enemies.getMembers()) {
+            if (t.getXPos() < 0) continue;
+            int d = dist(e.getXPos(), e.getYPos(), t.getXPos(), t.getYPos());
+            if (d < nearestDist) {
+                nearestDist = d;
+                nearest = t;
+            }
+        }
+        return nearest;
+    }
+
+    private static int dist(int x, int y, int x1, int y1) {
+        return Math.abs(x1 - x) + Math.abs(y1 - y);
+    }
+}
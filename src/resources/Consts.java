@@ -47,6 +47,13 @@ public final class Consts  {
     public static int NUM_PIECES_PER_TEAM = 4;
     public static int NUM_WEAPONS = 80;
     public static final int INIT_STEPS = 1;
+    public static final int ATTACK_RANGE = 1;
+    public static final int AUTOSAVE_TURNS = 10;
+    public static final int JOURNAL_SNAPSHOT_TURNS = 20;
+    public static final int UNDO_DEPTH = 100;
+    public static final boolean ON_DEMAND_RENDERING = true;
+    public static final boolean PARALLEL_COMPOSITION = true;
+    public static final boolean LIVE_STATE = false;
 
     // Game variables
 
@@ -0,0 +1,201 @@
+package view;
+
+import resources.Consts;
+
+/**
+ * The part of the board shown in the map area of the screen.
+ * Responsibility:
+ *
+ * 1. To keep the zoom, i.e. the size of a cell in pixels, and the
+ *    pan, i.e. the board pixel shown in the top left corner of the
+ *    map area, and to keep both within the board.
+ *
+ * 2. To convert between cells and screen pixels, and to tell which
+ *    cells are visible, so only those are drawn and the cost of a
+ *    frame grows with the map area instead of the board area.
+ *
+ * A board that fits the map area with cells of at least
+ * DEFAULT_CELL_SIZE pixels is shown whole, as before. Larger boards
+ * start zoomed in at the top left corner.
+ *
+ * The mouse listener moves the camera, the render thread copies it
+ * once per frame, so the methods that change it are synchronized.
+ */
+class Camera {
+
+    /** The smallest and largest cell size in pixels. */
+    static final int MIN_CELL_SIZE = 4;
+    static final int MAX_CELL_SIZE = 96;
+
+    /** The cell size a board starts with if it does not fit. */
+    static final int DEFAULT_CELL_SIZE = 8;
+
+    /** The factor of one step of the mouse wheel. */
+    private static final double ZOOM_STEP = 1.25;
+
+    /** The map area of the screen. */
+    static final int VIEW_X = Consts.MAP_X_OFFSET;
+    static final int VIEW_Y = Consts.MAP_Y_OFFSET;
+    static final int VIEW_WIDTH = Consts.BOARD_WIDTH;
+    static final int VIEW_HEIGHT = Consts.BOARD_HIGHT;
+
+    private final int boardSize;
+
+    /** The cell size that shows the whole board, 0 if none does. */
+    private final int fitCellSize;
+
+    private int cellSize;
+
+    // The board pixel in the top left corner of the map area
+    private int originX, originY;
+
+    /** Counts the changes, so a copy can tell it is out of date. */
+    private int version;
+
+    /**
+     * Instantiates a new camera.
+     *
+     * @param boardSize the board size
+     */
+    Camera(int boardSize) {
+        this.boardSize = boardSize;
+        this.fitCellSize = Math.min(VIEW_WIDTH, VIEW_HEIGHT) / boardSize;
+        this.cellSize = Math.max(fitCellSize, DEFAULT_CELL_SIZE);
+    }
+
+    /**
+     * Zooms around a point of the screen, which stays over the same
+     * board pixel.
+     *
+     * @param px the x on the screen
+     * @param py the y on the screen
+     * @param steps the steps to zoom in, negative to zoom out
+     */
+    synchronized void zoom(int px, int py, int steps) {
+        int size = (int) Math.round(cellSize * Math.pow(ZOOM_STEP, steps));
+        if (size == cellSize) size += Integer.signum(steps);
+        // No need to zoom out further than the whole board
+        size = Math.max(size, Math.max(fitCellSize, MIN_CELL_SIZE));
+        size = Math.min(size, Math.max(MAX_CELL_SIZE, fitCellSize));
+        if (size == cellSize) return;
+        px = Math.min(Math.max(px, VIEW_X), VIEW_X + VIEW_WIDTH) - VIEW_X;
+        py = Math.min(Math.max(py, VIEW_Y), VIEW_Y + VIEW_HEIGHT) - VIEW_Y;
+        double scale = (double) size / cellSize;
+        cellSize = size;
+        moveTo((int) Math.round((originX + px) * scale) - px, (int) Math.round((originY + py) * scale) - py);
+        version++;
+    }
+
+    /**
+     * Moves the camera, e.g. while the map is dragged.
+     *
+     * @param dx the pixels to move right
+     * @param dy the pixels to move down
+     */
+    synchronized void pan(int dx, int dy) {
+        int x = originX, y = originY;
+        moveTo(originX + dx, originY + dy);
+        if (x != originX || y != originY) version++;
+    }
+
+    private void moveTo(int x, int y) {
+        originX = Math.min(Math.max(x, 0), Math.max(boardSize * cellSize - VIEW_WIDTH, 0));
+        originY = Math.min(Math.max(y, 0), Math.max(boardSize * cellSize - VIEW_HEIGHT, 0));
+    }
+
+    /**
+     * Copies the camera, e.g. to the one the render thread draws with.
+     *
+     * @param other the camera to copy to
+     */
+    synchronized void copyTo(Camera other) {
+        other.cellSize = cellSize;
+        other.originX = originX;
+        other.originY = originY;
+        other.version = version;
+    }
+
+    synchronized int getVersion() {
+        return version;
+    }
+
+    int getCellSize() {
+        return cellSize;
+    }
+
+    int getOriginX() {
+        return originX;
+    }
+
+    int getOriginY() {
+        return originY;
+    }
+
+    /**
+     * Gets the screen x of the left side of a column of cells.
+     *
+     * @param i the column
+     * @return the x
+     */
+    int toScreenX(int i) {
+        return VIEW_X + i * cellSize - originX;
+    }
+
+    /**
+     * Gets the screen y of the top of a row of cells.
+     *
+     * @param j the row
+     * @return the y
+     */
+    int toScreenY(int j) {
+        return VIEW_Y + j * cellSize - originY;
+    }
+
+    /**
+     * Gets the column under a screen x, which may be off the board.
+     *
+     * @param px the x
+     * @return the column
+     */
+    int toColumn(int px) {
+        return Math.floorDiv(px - VIEW_X + originX, cellSize);
+    }
+
+    /**
+     * Gets the row under a screen y, which may be off the board.
+     *
+     * @param py the y
+     * @return the row
+     */
+    int toRow(int py) {
+        return Math.floorDiv(py - VIEW_Y + originY, cellSize);
+    }
+
+    /** The first and last visible column and row. */
+    int getFirstColumn() {
+        return Math.max(toColumn(VIEW_X), 0);
+    }
+
+    int getLastColumn() {
+        return Math.min(toColumn(VIEW_X + VIEW_WIDTH - 1), boardSize - 1);
+    }
+
+    int getFirstRow() {
+        return Math.max(toRow(VIEW_Y), 0);
+    }
+
+    int getLastRow() {
+        return Math.min(toRow(VIEW_Y + VIEW_HEIGHT - 1), boardSize - 1);
+    }
+
+    /**
+     * Checks if a cell is in the map area.
+     *
+     * @param i the column
+     * @param j the row
+     * @return true, if any part of the cell is visible
+     */
+    boolean isVisible(int i, int j) {
+        return i >= getFirstColumn() && i <= getLastColumn() && j >= getFirstRow() && j <= getLastRow();
+    }
+}
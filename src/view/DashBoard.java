@@ -1,8 +1,10 @@
 package view;
 
-import model.graphicModel.GameScreen;
+import model.gameModel.Entity;
+import model.graphicModel.Bitmap;
 import resources.Consts;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 
 /**
@@ -13,21 +15,56 @@ public class DashBoard {
     private static int Y = 12;
     private static int fi = 250, limit = 5000;
     private static long ft = System.currentTimeMillis();
+    // The lines shown for the hovered piece, built once when the hover changes
     private static String[] characterInfo;
-    public static void render(GameScreen screen) {
+    private static final int LINES = 7, CHAR_WIDTH = 10, CHAR_HEIGHT = 12;
+    private static final String SEPARATOR = "--------------";
+    // Counts the changes of characterInfo, so the screen can tell it has to be drawn again
+    private static int version;
+    public static void render(Bitmap screen) {
         //Font.draw_blockfont(screen, "test", 20, 20);
         if (characterInfo != null) {
-            Font.draw_krenfont(screen,  characterInfo[0], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET);
-            Font.draw_krenfont(screen, characterInfo[1], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + Y);
-            Font.draw_krenfont(screen, "HP " + characterInfo[3] + "/" + characterInfo[2], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + 2 * Y);
-            Font.draw_krenfont(screen, "STR " + characterInfo[4], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + 3 * Y);
-            Font.draw_krenfont(screen, "DEX " + characterInfo[5], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + 4 * Y);
-            Font.draw_krenfont(screen, "DEF " + characterInfo[6], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + 5 * Y);
+            for (int i = 0; i < characterInfo.length; i++) {
+                Font.draw_krenfont(screen, characterInfo[i], Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + i * Y);
+            }
         }
-        Font.draw_krenfont(screen, "--------------", Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + 6 * Y);
+        Font.draw_krenfont(screen, SEPARATOR, Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET + (LINES - 1) * Y);
     }
 
-    public static void parseCharInfo(String characterInfoStr) {
-        characterInfo = characterInfoStr.split(";");
+    /**
+     * Shows the stats of a piece.
+     *
+     * @param entity the piece under the cursor
+     */
+    public static void showCharInfo(Entity entity) {
+        characterInfo = new String[] {
+                entity.getName(),
+                entity.getProfessionName(),
+                "HP " + entity.getCurrentHP() + "/" + entity.getMaxHP(),
+                "STR " + entity.getStrength(),
+                "DEX " + entity.getAgility(),
+                "DEF " + entity.getDefense()
+        };
+        version++;
+    }
+
+    public static int getVersion() {
+        return version;
+    }
+
+    /**
+     * Gets the area of the screen the dashboard draws on.
+     *
+     * @return the bounds
+     */
+    public static Rectangle getBounds() {
+        int length = SEPARATOR.length();
+        if (characterInfo != null) {
+            for (int i = 0; i < characterInfo.length; i++) {
+                length = Math.max(length, characterInfo[i].length());
+            }
+        }
+        return new Rectangle(Consts.DASHBOARD_X_OFFSET, Consts.DASHBOARD_Y_OFFSET,
+                length * CHAR_WIDTH + CHAR_HEIGHT, LINES * Y);
     }
 }
@@ -0,0 +1,156 @@
+package view;
+
+/**
+ * The parts of the screen that changed since the last frame.
+ * Responsibility:
+ *
+ * 1. To collect the rectangles of the screen that have to be drawn
+ *    again, e.g. the cell of a moved piece or the verbose banner,
+ *    clipped to the screen.
+ *
+ * 2. To keep the number of rectangles small by merging rectangles
+ *    that overlap or touch, and by falling back to their bounding
+ *    box once there are too many of them.
+ */
+class DirtyRegion {
+
+    /** The most rectangles kept before they are merged into one. */
+    private static final int MAX_RECTS = 16;
+
+    /** The screen size. */
+    private final int width, height;
+
+    // Rectangle columns, from (x0, y0) inclusive to (x1, y1) exclusive
+    private final int[] x0 = new int[MAX_RECTS];
+    private final int[] y0 = new int[MAX_RECTS];
+    private final int[] x1 = new int[MAX_RECTS];
+    private final int[] y1 = new int[MAX_RECTS];
+
+    /** The number of rectangles. */
+    private int count;
+
+    /**
+     * Instantiates a new dirty region.
+     *
+     * @param width the screen width
+     * @param height the screen height
+     */
+    DirtyRegion(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    /**
+     * Adds a rectangle.
+     *
+     * @param x the x
+     * @param y the y
+     * @param w the width
+     * @param h the height
+     */
+    void add(int x, int y, int w, int h) {
+        int ax = Math.max(x, 0);
+        int ay = Math.max(y, 0);
+        int bx = Math.min(x + w, width);
+        int by = Math.min(y + h, height);
+        if (ax >= bx || ay >= by) return;
+
+        // Swallow every rectangle the new one overlaps or touches,
+        // the grown rectangle may then reach further ones
+        int i = 0;
+        while (i < count) {
+            if (ax <= x1[i] && x0[i] <= bx && ay <= y1[i] && y0[i] <= by) {
+                ax = Math.min(ax, x0[i]);
+                ay = Math.min(ay, y0[i]);
+                bx = Math.max(bx, x1[i]);
+                by = Math.max(by, y1[i]);
+                remove(i);
+                i = 0;
+            } else {
+                i++;
+            }
+        }
+        if (count == MAX_RECTS) {
+            for (i = 0; i < count; i++) {
+                ax = Math.min(ax, x0[i]);
+                ay = Math.min(ay, y0[i]);
+                bx = Math.max(bx, x1[i]);
+                by = Math.max(by, y1[i]);
+            }
+            count = 0;
+        }
+        x0[count] = ax;
+        y0[count] = ay;
+        x1[count] = bx;
+        y1[count] = by;
+        count++;
+    }
+
+    /**
+     * Adds all rectangles of another region.
+     *
+     * @param other the other region
+     */
+    void addAll(DirtyRegion other) {
+        for (int i = 0; i < other.count; i++) {
+            add(other.x0[i], other.y0[i], other.x1[i] - other.x0[i], other.y1[i] - other.y0[i]);
+        }
+    }
+
+    /**
+     * Replaces the rectangles by the ones of another region.
+     *
+     * @param other the other region
+     */
+    void set(DirtyRegion other) {
+        clear();
+        addAll(other);
+    }
+
+    /**
+     * Marks the whole screen as changed.
+     */
+    void markAll() {
+        count = 0;
+        add(0, 0, width, height);
+    }
+
+    /**
+     * Forgets all rectangles.
+     */
+    void clear() {
+        count = 0;
+    }
+
+    private void remove(int i) {
+        count--;
+        x0[i] = x0[count];
+        y0[i] = y0[count];
+        x1[i] = x1[count];
+        y1[i] = y1[count];
+    }
+
+    boolean isEmpty() {
+        return count == 0;
+    }
+
+    int size() {
+        return count;
+    }
+
+    int getX(int i) {
+        return x0[i];
+    }
+
+    int getY(int i) {
+        return y0[i];
+    }
+
+    int getWidth(int i) {
+        return x1[i] - x0[i];
+    }
+
+    int getHeight(int i) {
+        return y1[i] - y0[i];
+    }
+}
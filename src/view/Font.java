@@ -1,7 +1,10 @@
 package view;
 
 import model.graphicModel.Art;
-import model.graphicModel.GameScreen;
+import model.graphicModel.Bitmap;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Created by Human v Alien Team on 2016/4/14.
@@ -20,12 +23,71 @@ public class Font {
 
     /** The Constant FONT_WIDTH. */
     public static final int FONT_WIDTH = 18;
-    
+
+    // Font faces, the index of the lookup tables and text caches
+    private static final int BLOCK = 0, KREN = 1, FONT8X8 = 2, FONT16X16 = 3;
+
+    // The width, height and advance of a glyph of each face
+    private static final int[] GLYPH_WIDTH = {18, 12, 8, 16};
+    private static final int[] GLYPH_HEIGHT = {32, 12, 8, 16};
+    private static final int[] ADVANCE = {18, 10, 8, 16};
+
+    // Faces that leave no gap for an unknown character
+    private static final boolean[] SKIP_UNKNOWN = {true, true, false, true};
+
+    /** The number of ASCII characters in the lookup tables. */
+    private static final int ASCII = 128;
+
+    /** The glyph of each ASCII character of each face, already upper case, or null. */
+    private static final Bitmap[][] GLYPHS = {
+            glyphs(BLOCKFONT_LETTERS, Art.BLOCKFONT, 32, 0),
+            glyphs(BLOCKFONT_LETTERS, Art.KRENFONT, 16, 2),
+            glyphs(FONT8X8_LETTERS, Art.FONT8X8, 8, 0),
+            glyphs(FONT8X8_LETTERS, Art.FONT16X16, 8, 0)};
+
+    /** The most text bitmaps kept per face, the least recently drawn go first. */
+    private static final int CACHE_SIZE = 256;
+
+    /** The rendered text bitmaps of each face keyed by text. */
+    private static final TextCache[] TEXTS = {
+            new TextCache(), new TextCache(), new TextCache(), new TextCache()};
+
+    /**
+     * The rendered texts of a face in the order they were last drawn.
+     * Beyond CACHE_SIZE the least recently drawn text is dropped, so
+     * texts drawn every frame stay while changing ones come and go.
+     */
+    private static class TextCache extends LinkedHashMap<String, Bitmap> {
+
+        private static final long serialVersionUID = 1L;
+
+        TextCache() {
+            super(CACHE_SIZE * 4 / 3 + 1, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Bitmap> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    }
+
     /**
      * Instantiates a new font.
      */
     private Font() {}
-    
+
+    private static Bitmap[] glyphs(String letters, Bitmap[][] sheet, int columns, int firstRow) {
+        Bitmap[] table = new Bitmap[ASCII];
+        for(char ch = 0; ch < ASCII; ch ++) {
+            int c = letters.indexOf(Character.toUpperCase(ch));
+            // Some sheets are shorter than their letters
+            if(c >= 0 && c % columns < sheet.length && c / columns + firstRow < sheet[0].length) {
+                table[ch] = sheet[c % columns][c / columns + firstRow];
+            }
+        }
+        return table;
+    }
+
     /**
      * Gets the string width.
      *
@@ -37,6 +99,43 @@ public class Font {
 
     }
 
+    /**
+     * Gets the bitmap of a text in a face, rendered on first use.
+     * Characters without a glyph are left out, or leave a gap in
+     * faces that do so. The bands of the screen may be rendered by
+     * several threads, so the cache is shared under a lock.
+     *
+     * @param face the face, e.g. BLOCK
+     * @param string the text
+     * @return the bitmap, transparent where there is no glyph
+     */
+    private static synchronized Bitmap text(int face, String string) {
+        TextCache cache = TEXTS[face];
+        Bitmap text = cache.get(string);
+        if(text != null) return text;
+
+        // Upper case as a whole, some characters grow, e.g. german sharp s
+        String upper = string.toUpperCase();
+        int glyphs = 0;
+        for(int i = 0; i < upper.length(); i ++) {
+            if(!SKIP_UNKNOWN[face] || glyph(face, upper.charAt(i)) != null) glyphs ++;
+        }
+        int width = glyphs == 0 ? 0 : (glyphs - 1) * ADVANCE[face] + GLYPH_WIDTH[face];
+        text = new Bitmap(Math.max(width, 1), GLYPH_HEIGHT[face]);
+        int x = 0;
+        for(int i = 0; i < upper.length(); i ++) {
+            Bitmap glyph = glyph(face, upper.charAt(i));
+            if(glyph != null) text.render(glyph, x, 0);
+            if(glyph != null || !SKIP_UNKNOWN[face]) x += ADVANCE[face];
+        }
+        cache.put(string, text);
+        return text;
+    }
+
+    private static Bitmap glyph(int face, char ch) {
+        return ch < ASCII ? GLYPHS[face][ch] : null;
+    }
+
     /**
      * Draw_blockfont.
      *
@@ -45,18 +144,8 @@ public class Font {
      * @param x the x
      * @param y the y
      */
-    public static void draw_blockfont(GameScreen screen, String string, int x, int y) {
-        final int CHARY_OFFSET = 32;
-        string = string.toUpperCase();
-        int length = string.length();
-
-        for(int i = 0; i < length; i ++) {
-            int c = BLOCKFONT_LETTERS.indexOf(string.charAt(i));
-            if(c < 0) continue;
-            screen.render(Art.BLOCKFONT[c % 32][c / 32], x, y);
-            x += 18;
-            //y += 32;
-        }
+    public static void draw_blockfont(Bitmap screen, String string, int x, int y) {
+        screen.render(text(BLOCK, string), x, y);
     }
 
     /**
@@ -67,17 +156,8 @@ public class Font {
      * @param x the x
      * @param y the y
      */
-    public static void draw_krenfont(GameScreen screen, String string, int x, int y) {
-        string = string.toUpperCase();
-        int length = string.length();
-
-        for(int i = 0; i < length; i ++) {
-            int c = BLOCKFONT_LETTERS.indexOf(string.charAt(i));
-            if(c < 0) continue;
-            screen.render(Art.KRENFONT[c % 16][(c / 16) + 2], x, y);
-            x += 10;
-            //y += 32;
-        }
+    public static void draw_krenfont(Bitmap screen, String string, int x, int y) {
+        screen.render(text(KREN, string), x, y);
     }
 
     /**
@@ -88,15 +168,8 @@ public class Font {
      * @param x the x
      * @param y the y
      */
-    public static void draw_font8x8(GameScreen screen, String string, int x, int y) {
-        string = string.toUpperCase();
-        int length = string.length();
-
-        for(int i = 0; i < length; i ++) {
-            int c = FONT8X8_LETTERS.indexOf(string.charAt(i));
-            if(c >= 0) screen.render(Art.FONT8X8[c % 8][c / 8], x, y);
-            x += 8;
-        }
+    public static void draw_font8x8(Bitmap screen, String string, int x, int y) {
+        screen.render(text(FONT8X8, string), x, y);
     }
 
     /**
@@ -107,16 +180,8 @@ public class Font {
      * @param x the x
      * @param y the y
      */
-    public static void draw_font16x16(GameScreen screen, String string, int x, int y) {
-        string = string.toUpperCase();
-        int length = string.length();
-
-        for(int i = 0; i < length; i ++) {
-            int c = FONT8X8_LETTERS.indexOf(string.charAt(i));
-            if(c < 0) continue;
-            screen.render(Art.FONT16X16[c % 8][c / 8], x, y);
-            x += 16;
-        }
+    public static void draw_font16x16(Bitmap screen, String string, int x, int y) {
+        screen.render(text(FONT16X16, string), x, y);
     }
 
 }
@@ -0,0 +1,198 @@
+package view;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+/**
+ * Performance counters of the render thread.
+ * Responsibility:
+ *
+ * 1. To count frames and ticks, and to keep the time of the last
+ *    frames so the median and the slow frames (p95, p99) can be told
+ *    apart, e.g. to find the cause of a stutter on a user machine.
+ *
+ * 2. To add up the time spent in each phase of a frame, and the
+ *    bytes the render thread allocated per frame where the JVM can
+ *    tell.
+ *
+ * 3. To publish all of it once a second as lines of text for the
+ *    overlay, so the numbers shown stay readable and the strings are
+ *    only built once a second.
+ *
+ * All methods except getLines() and getVersion() are called by the
+ * render thread only.
+ */
+class FrameMetrics {
+
+    /** Frame phases. */
+    static final int DIRTY = 0;
+    static final int BACKGROUND = 1;
+    static final int DASHBOARD = 2;
+    static final int PIECES = 3;
+    static final int TEXT = 4;
+    static final int UPLOAD = 5;
+    static final int MASK = 6;
+    static final int SHOW = 7;
+    static final int BANDS = 8; // all layers, when composed in parallel bands
+    private static final String[] PHASE_NAMES =
+            {"DIRTY", "BG", "DASH", "PIECES", "TEXT", "UPLOAD", "MASK", "SHOW", "BANDS"};
+
+    /** The number of frame times the percentiles are taken from. */
+    private static final int HISTORY = 256;
+
+    private static final long NS_PER_US = 1000L;
+    private static final long MS_PER_SEC = 1000L;
+
+    /** The allocation counter of the JVM, or null if it has none. */
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationCounter();
+
+    // Counters of the current second
+    private int frames;
+    private int ticks;
+    private final long[] phaseNanos = new long[PHASE_NAMES.length];
+    private long allocated;
+
+    // The last frame times in nanoseconds, as a ring
+    private final long[] frameNanos = new long[HISTORY];
+    private final long[] sorted = new long[HISTORY];
+    private int frameCount;
+
+    // The frame being measured
+    private long frameStart;
+    private long frameAllocated;
+
+    /** The time of the last publish in milliseconds. */
+    private long lastPublish = System.currentTimeMillis();
+
+    /** The published lines. */
+    private volatile String[] lines = new String[0];
+
+    /** The number of publishes so far. */
+    private volatile int version;
+
+    private static com.sun.management.ThreadMXBean allocationCounter() {
+        try {
+            Object bean = ManagementFactory.getThreadMXBean();
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                com.sun.management.ThreadMXBean counter = (com.sun.management.ThreadMXBean) bean;
+                if (counter.isThreadAllocatedMemorySupported() && counter.isThreadAllocatedMemoryEnabled()) {
+                    return counter;
+                }
+            }
+        } catch (LinkageError e) {
+            // Not a HotSpot JVM
+        }
+        return null;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? 0 : ALLOCATIONS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Counts a tick.
+     */
+    void tick() {
+        ticks++;
+    }
+
+    /**
+     * Starts measuring a frame.
+     *
+     * @return the start time, for the first lap()
+     */
+    long beginFrame() {
+        frameAllocated = allocatedBytes();
+        frameStart = System.nanoTime();
+        return frameStart;
+    }
+
+    /**
+     * Adds the time since an earlier lap to a phase.
+     *
+     * @param phase the phase, e.g. BACKGROUND
+     * @param since the time the phase started
+     * @return the current time, for the next lap()
+     */
+    long lap(int phase, long since) {
+        long now = System.nanoTime();
+        phaseNanos[phase] += now - since;
+        return now;
+    }
+
+    /**
+     * Stops measuring a frame that was shown.
+     */
+    void endFrame() {
+        frameNanos[frameCount % HISTORY] = System.nanoTime() - frameStart;
+        frameCount++;
+        frames++;
+        allocated += allocatedBytes() - frameAllocated;
+    }
+
+    /**
+     * Publishes the counters of the last second, if a second has passed,
+     * and starts counting again.
+     *
+     * @param now the current time in milliseconds
+     * @return true, if the counters were published
+     */
+    boolean update(long now) {
+        long elapsed = now - lastPublish;
+        if (elapsed < MS_PER_SEC) return false;
+        lastPublish = now;
+
+        int n = Math.min(frameCount, HISTORY);
+        System.arraycopy(frameNanos, 0, sorted, 0, n);
+        Arrays.sort(sorted, 0, n);
+
+        String[] text = new String[4 + PHASE_NAMES.length];
+        text[0] = "FPS " + frames * MS_PER_SEC / elapsed + " TPS " + ticks * MS_PER_SEC / elapsed;
+        text[1] = "P50 " + percentile(n, 50) + "US";
+        text[2] = "P95 " + percentile(n, 95) + "US P99 " + percentile(n, 99) + "US";
+        text[3] = ALLOCATIONS == null ? "ALLOC -" : "ALLOC " + (frames == 0 ? 0 : allocated / frames) + "B";
+        for (int i = 0; i < PHASE_NAMES.length; i++) {
+            text[4 + i] = PHASE_NAMES[i] + " " + (frames == 0 ? 0 : phaseNanos[i] / frames / NS_PER_US) + "US";
+        }
+        lines = text;
+        version++;
+
+        frames = 0;
+        ticks = 0;
+        allocated = 0;
+        Arrays.fill(phaseNanos, 0);
+        return true;
+    }
+
+    private long percentile(int n, int p) {
+        if (n == 0) return 0;
+        return sorted[(n - 1) * p / 100] / NS_PER_US;
+    }
+
+    /**
+     * Gets the time the counters are published next.
+     *
+     * @return the time in milliseconds
+     */
+    long getNextUpdate() {
+        return lastPublish + MS_PER_SEC;
+    }
+
+    /**
+     * Gets the published lines, e.g. "FPS 60 TPS 60".
+     *
+     * @return the lines
+     */
+    String[] getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the number of publishes so far.
+     *
+     * @return the version
+     */
+    int getVersion() {
+        return version;
+    }
+}
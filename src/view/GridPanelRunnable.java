@@ -6,14 +6,18 @@ import model.gameModel.Point;
 import model.graphicModel.Art;
 import model.graphicModel.Bitmap;
 import model.graphicModel.GameScreen;
-import model.graphicModel.ImageManager;
+import model.graphicModel.RenderPool;
+import model.graphicModel.SpriteCache;
 import resources.Consts;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.image.BufferStrategy;
-import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Created by Human v Alien Team on 2016/4/12.
@@ -22,37 +26,105 @@ class GridPanelRunnable extends Canvas implements  Runnable {
 
 
     public model.gameModel.Point cursorXYPos;
-    public int[][] maskMatrix; // mask matrix for game board
+    // Mask of the game board: a cell written since the last reset has its value in
+    // maskMatrix and the stamp of the reset in maskStamp, every other cell is maskDefault.
+    // Both are split in chunks of MASK_CHUNK_SIZE x MASK_CHUNK_SIZE cells, a chunk is
+    // only allocated once a cell of it is written
+    private static final int MASK_CHUNK_SHIFT = 5;
+    private static final int MASK_CHUNK_SIZE = 1 << MASK_CHUNK_SHIFT;
+    private static final int MASK_CHUNK_MASK = MASK_CHUNK_SIZE - 1;
+    private int maskSize; // the board size
+    private int maskChunks; // chunks per side of the board
+    private int[][] maskMatrix;
+    private int[][] maskStamp;
+    private int maskVersion = 1;
+    private int maskDefault = MxMouseListener.SELECTABLE;
     private static final double FPS = 60.0;
     private static final double ONE_SEC_PER_NS = 1000000000.0;
+    private static final long NS_PER_MS = 1000000L;
     private static final int ATTACK_EFFECT_DISPLAYING_TIME = 60;
     private static final int DISPLAYING_TIME_DIVIDENT = 20;
-    private static final double INIT_IMAGE_RESIZE_FACTOR = 0.9;
     private static final int INIT_IMAGE_Y_OFFSET = 2;
     private GameController gameController;
-    private boolean running;
+    private volatile boolean running;
+    private volatile Thread renderThread;
+    // On-demand mode: render only when a frame is requested or an animation runs
+    private final boolean onDemand = Consts.ON_DEMAND_RENDERING;
+    private final AtomicBoolean frameRequested = new AtomicBoolean(true);
     private PopupMenu editMenu;
     private boolean screenLock; // Lock screen for moving pieces
     MxMouseListener ml;
     private GameScreen screen;
-    private int showAttackSec;
+    private volatile int showAttackSec;
     private String type;
     private Point cellBeingAttack;
     private int attackMode = Consts.ATTACK_MODE;
 
+    // Dirty-rectangle rendering: what the screen shows, to find what changed
+    private static final int BUFFERS = 3;
+    private final DirtyRegion dirty = new DirtyRegion(Consts.SCR_WIDTH, Consts.SCR_HEIGHT);
+    private final DirtyRegion upload = new DirtyRegion(Consts.SCR_WIDTH, Consts.SCR_HEIGHT);
+    private final DirtyRegion[] shownDirty = new DirtyRegion[BUFFERS - 2]; // dirty regions of the last frames
+    private int frames;
+    private volatile boolean repaintAll = true;
+    private Bitmap renderedBackground;
+    private long tileSeed; // the seed of the tiles of the background
+    // The sprites and the mask of the visible cells as rendered, from cell
+    // renderedX, renderedY on; re-based when the camera moves
+    private Bitmap[][] renderedSprites;
+    private int[][] renderedMask;
+    private int renderedX, renderedY, renderedWidth, renderedHeight;
+    private int renderedDashBoard = -1;
+    private Rectangle dashBoardBounds;
+    private int renderedVerbose = -1;
+    private boolean verboseShowing;
+    private Rectangle verboseBounds;
+    private int effectFrame = -1;
+    private Point effectCell;
+
+    // Performance counters and their overlay
+    private static final int HUD_X = 8;
+    private static final int HUD_Y = Consts.DASHBOARD_Y_OFFSET + 96;
+    private static final int HUD_LINE_HEIGHT = 10;
+    private static final int HUD_CHAR_WIDTH = 8;
+    private final FrameMetrics metrics = new FrameMetrics();
+    private volatile boolean hudVisible;
+    private String[] hudLines; // the lines on screen, null if hidden
+
+    // Parallel composition: large changes are rendered in horizontal bands of the screen
+    private static final int BAND_HEIGHT = 64;
+    private static final int PARALLEL_MIN_PIXELS = 128 * 1024;
+    private final boolean parallel = Consts.PARALLEL_COMPOSITION
+            && Runtime.getRuntime().availableProcessors() > 1;
+    private Bitmap[] bands; // views of the screen, one per band
+
+    // The part of the board on screen: moved by the mouse, and as rendered
+    private final Camera camera = new Camera(Consts.getBSIZE());
+    private final Camera view = new Camera(Consts.getBSIZE());
+
 
     public GridPanelRunnable(GameController gameController) {
 
         //board = modelManager.getBoard();
         this.gameController = gameController;
         setBackground(Color.GRAY);
-        Art.resetBackground();
+        tileSeed = gameController.getSeed();
+        Art.resetBackground(tileSeed);
+        applyView();
         initMaskMatrix();
+        for (int i = 0; i < shownDirty.length; i++) {
+            shownDirty[i] = new DirtyRegion(Consts.SCR_WIDTH, Consts.SCR_HEIGHT);
+        }
         cursorXYPos = new Point(0, 0);
         ml = new MxMouseListener(this, this.gameController);
         addMouseListener(ml);
         addMouseMotionListener(ml);
+        addMouseWheelListener(ml);
         screen = new GameScreen(Consts.SCR_WIDTH, Consts.SCR_HEIGHT);
+        bands = new Bitmap[(Consts.SCR_HEIGHT + BAND_HEIGHT - 1) / BAND_HEIGHT];
+        for (int i = 0; i < bands.length; i++) {
+            bands[i] = new Bitmap(screen);
+        }
 
     }
 
@@ -63,10 +135,7 @@ class GridPanelRunnable extends Canvas implements  Runnable {
         double target = FPS;
         double nsPerTick = ONE_SEC_PER_NS / target;
         long lastTime = System.nanoTime();
-        long timer = System.currentTimeMillis();
         double unprocessed = 0.0;
-        int fps = 0;
-        int tps = 0;
         boolean canRender = false;
 
         while (running) {
@@ -74,33 +143,84 @@ class GridPanelRunnable extends Canvas implements  Runnable {
             unprocessed += (now - lastTime) / nsPerTick;
             lastTime = now;
 
+            canRender = frameRequested.getAndSet(false);
             if (unprocessed >= 1.0) {
                 tick();
                 //MxMouseListener.update();
                 unprocessed--;
-                tps++;
+                metrics.tick();
                 canRender = true;
-            } else canRender = false;
-
-            try {
-                Thread.sleep(1);
-            } catch (InterruptedException e) {
-                e.printStackTrace();
             }
 
             if (canRender) {
                 render();
-                fps++;
             }
-            // Reset fps, tps
-            if (System.currentTimeMillis() - 1000 > timer) {
-                timer += 1000;
-                fps = 0;
-                tps = 0;
+            // Publish fps, tps and frame times once a second
+            if (metrics.update(System.currentTimeMillis()) && hudVisible) {
+                frameRequested.set(true);
+            }
+
+            if (!onDemand || isAnimating()) {
+                // Sleep until the next tick is due
+                LockSupport.parkNanos(this, (long) ((1.0 - unprocessed) * nsPerTick));
+            } else {
+                waitForFrame();
+                // Nothing ticks while idle, do not catch up on the time waited
+                lastTime = System.nanoTime();
+                unprocessed = 0.0;
+            }
+        }
+    }
+
+    /********************************************************************
+     * requestFrame: asks the render thread for a new frame, e.g. after
+     * the model or the mouse hover changed. It wakes the render thread
+     * if it is waiting in on-demand mode.
+     *********************************************************************/
+
+    public void requestFrame() {
+        frameRequested.set(true);
+        Thread thread = renderThread;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    private boolean isAnimating() {
+        return showAttackSec > 0;
+    }
+
+    /********************************************************************
+     * waitForFrame: parks the render thread until a frame is requested,
+     * until the verbose message times out and has to be removed, or
+     * until the overlay shows the counters of the next second
+     *********************************************************************/
+
+    private void waitForFrame() {
+        while (running && !frameRequested.get()) {
+            long deadline = Long.MAX_VALUE;
+            if (verboseShowing) deadline = Verbose.getExpiryTime();
+            if (hudVisible) deadline = Math.min(deadline, metrics.getNextUpdate());
+            long now = System.currentTimeMillis();
+            if (Verbose.isShowing() != verboseShowing || now >= deadline) {
+                // The message timed out or the counters are due
+                frameRequested.set(true);
+            } else if (deadline != Long.MAX_VALUE) {
+                LockSupport.parkNanos(this, (deadline - now) * NS_PER_MS);
+            } else {
+                LockSupport.park(this);
             }
         }
     }
 
+    /********************************************************************
+     * setHudVisible: shows or hides the overlay of the performance
+     * counters
+     *********************************************************************/
+
+    public void setHudVisible(boolean visible) {
+        hudVisible = visible;
+        requestFrame();
+    }
+
     private void tick() {
         showAttackSec -- ;
     }
@@ -112,104 +232,422 @@ class GridPanelRunnable extends Canvas implements  Runnable {
 
         BufferStrategy bs = getBufferStrategy();
         if (bs == null) {
-            createBufferStrategy(3);
+            createBufferStrategy(BUFFERS);
+            frameRequested.set(true);
             return;
         }
+        BufferCapabilities caps = bs.getCapabilities();
+        if (caps.isPageFlipping() && caps.getFlipContents() != BufferCapabilities.FlipContents.PRIOR
+                && caps.getFlipContents() != BufferCapabilities.FlipContents.COPIED) {
+            // The back buffer does not keep what was drawn on it
+            repaintAll = true;
+        }
+        long t = metrics.beginFrame();
+        collectDirty();
+        t = metrics.lap(FrameMetrics.DIRTY, t);
+        if (dirty.isEmpty()) return;
+
+        t = composeDirty(t);
 
+        // The other back buffers still miss the changes of the last frames
+        upload.set(dirty);
+        for (DirtyRegion shown : shownDirty) {
+            upload.addAll(shown);
+        }
         Graphics g = bs.getDrawGraphics();
         Graphics2D g2d = (Graphics2D) g;
-        // Render Game Background
-        screen.render(Art.background, 0, 0);
-        ////////////////////////////////////////////////
-        DashBoard.render(screen);
-        renderGamePieces();
-        Verbose.render(screen);
-
-        g.drawImage(screen.image, 0,0, Consts.SCR_WIDTH,Consts.SCR_HEIGHT,null);
-        paint(g2d);
-        if(showAttackSec > 0 && cellBeingAttack != null) {
-            renderAttackEffect(g2d);
-        }
-        ////////////////////////////////////////////////
+        for (int k = 0; k < upload.size(); k++) {
+            int x = upload.getX(k), y = upload.getY(k), w = upload.getWidth(k), h = upload.getHeight(k);
+            g2d.setClip(x, y, w, h);
+            g.drawImage(screen.image, x, y, x + w, y + h, x, y, x + w, y + h, null);
+            t = metrics.lap(FrameMetrics.UPLOAD, t);
+            paint(g2d, x, y, w, h);
+            t = metrics.lap(FrameMetrics.MASK, t);
+        }
         g.dispose();
         bs.show();
+        metrics.lap(FrameMetrics.SHOW, t);
+        metrics.endFrame();
+        if (bs.contentsLost() || bs.contentsRestored()) {
+            repaintAll = true;
+        }
+
+        if (shownDirty.length > 0) {
+            shownDirty[frames % shownDirty.length].set(dirty);
+            frames++;
+        }
+        dirty.clear();
+    }
+
+    /********************************************************************
+     * collectDirty: compares the board, the mask, the dashboard, the
+     * verbose message and the attack effect with what was rendered
+     * last time, and marks the parts of the screen that changed
+     *********************************************************************/
+
+    private void collectDirty() {
+        if (camera.getVersion() != view.getVersion()) {
+            camera.copyTo(view);
+            applyView();
+        }
+        if (gameController.getSeed() != tileSeed) {
+            // A loaded game brings the tiles of its own seed
+            tileSeed = gameController.getSeed();
+            Art.resetBackground(tileSeed);
+            applyView();
+        }
+        fitRenderedCells();
+        if (repaintAll || renderedBackground != Art.background) {
+            repaintAll = false;
+            renderedBackground = Art.background;
+            dirty.markAll();
+        }
+        // Only the visible cells, and the ones that may reach into them
+        for (int i = Math.max(view.getFirstColumn() - 1, 0); i <= view.getLastColumn(); i++) {
+            for (int j = Math.max(view.getFirstRow() - 1, 0); j <= view.getLastRow(); j++) {
+                Entity entity = gameController.getEntity(i, j);
+                Bitmap sprite = entity == null ? null
+                        : SpriteCache.getCharSprite(entity.getProfessionName(), view.getCellSize());
+                int mask = getMask(i, j);
+                int u = i - renderedX;
+                int v = j - renderedY;
+                if (sprite != renderedSprites[u][v] || mask != renderedMask[u][v]) {
+                    renderedSprites[u][v] = sprite;
+                    renderedMask[u][v] = mask;
+                    addCell(i, j);
+                }
+            }
+        }
+        if (DashBoard.getVersion() != renderedDashBoard) {
+            renderedDashBoard = DashBoard.getVersion();
+            addRect(dashBoardBounds);
+            dashBoardBounds = DashBoard.getBounds();
+            addRect(dashBoardBounds);
+        }
+        boolean showing = Verbose.isShowing();
+        if (showing != verboseShowing || Verbose.getVersion() != renderedVerbose) {
+            verboseShowing = showing;
+            renderedVerbose = Verbose.getVersion();
+            addRect(verboseBounds);
+            verboseBounds = Verbose.getBounds();
+            addRect(verboseBounds);
+        }
+        int frame = showAttackSec > 0 && cellBeingAttack != null ? showAttackSec / DISPLAYING_TIME_DIVIDENT : -1;
+        if (frame != effectFrame || cellBeingAttack != effectCell) {
+            if (effectFrame >= 0) addCell(effectCell.x, effectCell.y);
+            effectFrame = frame;
+            effectCell = cellBeingAttack;
+            if (effectFrame >= 0) addCell(effectCell.x, effectCell.y);
+        }
+        String[] lines = hudVisible ? metrics.getLines() : null;
+        if (lines != hudLines) {
+            addHud();
+            hudLines = lines;
+            addHud();
+        }
+    }
+
+    private void addHud() {
+        if (hudLines == null) return;
+        int width = 0;
+        for (String line : hudLines) {
+            width = Math.max(width, line.length() * HUD_CHAR_WIDTH);
+        }
+        dirty.add(HUD_X, HUD_Y, width, hudLines.length * HUD_LINE_HEIGHT);
+    }
+
+    /********************************************************************
+     * composeDirty: renders the changed parts of the game screen again,
+     * the rest of the screen keeps what was rendered before. Large
+     * changes are rendered in bands on a fork-join pool instead.
+     * long t: the start time of the first phase, it returns the time
+     * the last phase ended
+     *********************************************************************/
+
+    private long composeDirty(long t) {
+        if (parallel && dirtyArea() >= PARALLEL_MIN_PIXELS) {
+            RenderPool.get().invoke(new ComposeBands(0, bands.length));
+            return metrics.lap(FrameMetrics.BANDS, t);
+        }
+        for (int k = 0; k < dirty.size(); k++) {
+            int x = dirty.getX(k), y = dirty.getY(k), w = dirty.getWidth(k), h = dirty.getHeight(k);
+            screen.setClip(x, y, w, h);
+            screen.render(Art.background, 0, 0);
+            t = metrics.lap(FrameMetrics.BACKGROUND, t);
+            DashBoard.render(screen);
+            t = metrics.lap(FrameMetrics.DASHBOARD, t);
+            renderGamePieces(screen, x, y, w, h);
+            t = metrics.lap(FrameMetrics.PIECES, t);
+            Verbose.render(screen);
+            if (hudLines != null) renderHud(screen);
+            t = metrics.lap(FrameMetrics.TEXT, t);
+        }
+        screen.resetClip();
+        return t;
+    }
+
+    private int dirtyArea() {
+        int area = 0;
+        for (int k = 0; k < dirty.size(); k++) {
+            area += dirty.getWidth(k) * dirty.getHeight(k);
+        }
+        return area;
+    }
+
+    /********************************************************************
+     * composeBand: renders the changed parts of one band of the screen,
+     * layer by layer like composeDirty() does. The dirty rectangles do
+     * not overlap and the bands split them, so every pixel is drawn
+     * by one band in the same order as on the serial path.
+     * int b: the band
+     *********************************************************************/
+
+    private void composeBand(int b) {
+        Bitmap band = bands[b];
+        int top = b * BAND_HEIGHT;
+        int bottom = Math.min(top + BAND_HEIGHT, screen.height);
+        for (int k = 0; k < dirty.size(); k++) {
+            int y = Math.max(dirty.getY(k), top);
+            int h = Math.min(dirty.getY(k) + dirty.getHeight(k), bottom) - y;
+            if (h <= 0) continue;
+            int x = dirty.getX(k), w = dirty.getWidth(k);
+            band.setClip(x, y, w, h);
+            band.render(Art.background, 0, 0);
+            DashBoard.render(band);
+            renderGamePieces(band, x, y, w, h);
+            Verbose.render(band);
+            if (hudLines != null) renderHud(band);
+        }
+    }
+
+    /**
+     * Renders a range of bands, split in halves down to single bands.
+     */
+    private class ComposeBands extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int from, to;
+
+        ComposeBands(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from == 1) {
+                composeBand(from);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new ComposeBands(from, mid), new ComposeBands(mid, to));
+        }
+    }
+
+    /********************************************************************
+     * renderHud: draws the performance counters in the lower left
+     *********************************************************************/
+
+    private void renderHud(Bitmap target) {
+        for (int i = 0; i < hudLines.length; i++) {
+            Font.draw_font8x8(target, hudLines[i], HUD_X, HUD_Y + i * HUD_LINE_HEIGHT);
+        }
+    }
+
+    private void addCell(int i, int j) {
+        // A piece is drawn a little below its cell, and the border of
+        // a cell one pixel beyond it, but nothing beyond the map
+        int x0 = Math.max(view.toScreenX(i), Camera.VIEW_X);
+        int y0 = Math.max(view.toScreenY(j), Camera.VIEW_Y);
+        int x1 = Math.min(view.toScreenX(i) + view.getCellSize() + 1, Camera.VIEW_X + Camera.VIEW_WIDTH);
+        int y1 = Math.min(view.toScreenY(j) + view.getCellSize() + INIT_IMAGE_Y_OFFSET + 1,
+                Camera.VIEW_Y + Camera.VIEW_HEIGHT);
+        if (x0 < x1 && y0 < y1) dirty.add(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    private void addRect(Rectangle rect) {
+        if (rect != null) dirty.add(rect.x, rect.y, rect.width, rect.height);
+    }
+
+    // The cells that may be drawn on a screen pixel, within the visible ones
+    private int firstColumn(int px) {
+        return Math.max(view.toColumn(px) - 1, Math.max(view.getFirstColumn() - 1, 0));
+    }
+
+    private int lastColumn(int px) {
+        return Math.min(view.toColumn(px) + 1, view.getLastColumn());
+    }
+
+    private int firstRow(int py) {
+        return Math.max(view.toRow(py) - 1, Math.max(view.getFirstRow() - 1, 0));
+    }
+
+    private int lastRow(int py) {
+        return Math.min(view.toRow(py) + 1, view.getLastRow());
+    }
+
+    /********************************************************************
+     * applyView: shows the part of the board the camera was moved to,
+     * i.e. the background, the hit test of the mouse and the size of
+     * the sprites follow it
+     *********************************************************************/
+
+    private void applyView() {
+        Rectmech.setLength(view.getCellSize());
+        Rectmech.setOrigin(view.getOriginX(), view.getOriginY());
+        Art.setView(view.getCellSize(), view.getOriginX(), view.getOriginY());
+    }
+
+    /********************************************************************
+     * zoom: zooms the board around a point of the screen
+     * int x, int y: the point, int steps: the steps to zoom in, negative
+     * to zoom out
+     *********************************************************************/
+
+    void zoom(int x, int y, int steps) {
+        camera.zoom(x, y, steps);
+        requestFrame();
+    }
+
+    /********************************************************************
+     * pan: moves the board by a number of screen pixels, e.g. while it
+     * is dragged
+     *********************************************************************/
+
+    void pan(int dx, int dy) {
+        camera.pan(dx, dy);
+        requestFrame();
+    }
+
+    @Override
+    public void update(Graphics g) {
+        paint(g);
+    }
+
+    @Override
+    public void paint(Graphics g) {
+        // The window was uncovered or resized, the render thread draws it again
+        repaintAll = true;
+        requestFrame();
     }
 
     public void start() {
         running = true;
-        new Thread(this).start();
+        renderThread = new Thread(this);
+        renderThread.start();
         MainPanel.showVerbose("Game Start", 5000);
     }
 
     public void stop() {
         if (!running) return;
         running = false;
+        Thread thread = renderThread;
+        if (thread != null) LockSupport.unpark(thread);
     }
 
     public int getAttackMode() {
         return attackMode;
     }
     /***************************************************************************
-     * Name: paintComponent(Graphics g) Parameters: (g) : the graphics context
-     * to draw on.
+     * Name: paint(Graphics2D g2, x, y, w, h) Parameters: (g2) : the graphics
+     * context to draw on, (x, y, w, h) : the part of the screen to draw.
+     * Draws the shadow of the cells and the attack effect on top of the
+     * game screen.
      *****************************************************************************/
-    public void paint(Graphics2D g2) {
+    public void paint(Graphics2D g2, int x, int y, int w, int h) {
         g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-        renderMaskMatrix(g2);
-
+        g2.clipRect(Camera.VIEW_X, Camera.VIEW_Y, Camera.VIEW_WIDTH, Camera.VIEW_HEIGHT);
+        renderMaskMatrix(g2, x, y, w, h);
+        if (effectFrame >= 0 && effectCell != null) {
+            renderAttackEffect(g2);
+        }
     }
 
     public void prepareAttackEffect(String type) {
         showAttackSec = ATTACK_EFFECT_DISPLAYING_TIME;
         this.type = type;
+        requestFrame();
+    }
+
+    /********************************************************************
+     * fitRenderedCells: re-bases the rendered sprites and mask on the
+     * visible cells, and the one before them that may reach into the
+     * view. They are only kept for these cells, so the screen is
+     * repainted when they change
+     *********************************************************************/
+
+    private void fitRenderedCells() {
+        int x = Math.max(view.getFirstColumn() - 1, 0);
+        int y = Math.max(view.getFirstRow() - 1, 0);
+        int w = Math.max(view.getLastColumn() - x + 1, 0);
+        int h = Math.max(view.getLastRow() - y + 1, 0);
+        if (renderedSprites != null && x == renderedX && y == renderedY
+                && w == renderedWidth && h == renderedHeight) return;
+        if (renderedSprites == null || w != renderedWidth || h != renderedHeight) {
+            renderedSprites = new Bitmap[w][h];
+            renderedMask = new int[w][h];
+        } else {
+            for (int u = 0; u < w; u++) {
+                Arrays.fill(renderedSprites[u], null);
+                Arrays.fill(renderedMask[u], 0);
+            }
+        }
+        renderedX = x;
+        renderedY = y;
+        renderedWidth = w;
+        renderedHeight = h;
+        repaintAll = true;
     }
 
     private void renderAttackEffect(Graphics2D g2d) {
-        MainPanel.showAttackEffect(g2d, cellBeingAttack.x, cellBeingAttack.y,
-                showAttackSec / DISPLAYING_TIME_DIVIDENT, type);
+        MainPanel.showAttackEffect(g2d, effectCell.x, effectCell.y, effectFrame, type);
     }
 
     /********************************************************************
-     * renderGamePieces: draws game pieces on screen according to
-     * the data stored in board[][]
+     * renderGamePieces: draws game pieces on screen in a part of the
+     * screen, according to the sprites found by collectDirty()
      *********************************************************************/
 
-    private void renderGamePieces() {
-        for (int i = 0; i < Consts.getBSIZE(); i++) {
-            for (int j = 0; j < Consts.getBSIZE(); j++) {
-                BoardCell cell = gameController.getBoardCell(i, j);
-                if (cell.getEntity() != null) {
+    private void renderGamePieces(Bitmap target, int x, int y, int w, int h) {
+        // Pieces at the edge of the map must not reach beyond it
+        int x0 = Math.max(x, Camera.VIEW_X);
+        int y0 = Math.max(y, Camera.VIEW_Y);
+        int x1 = Math.min(x + w, Camera.VIEW_X + Camera.VIEW_WIDTH);
+        int y1 = Math.min(y + h, Camera.VIEW_Y + Camera.VIEW_HEIGHT);
+        if (x0 >= x1 || y0 >= y1) return;
+        target.setClip(x0, y0, x1 - x0, y1 - y0);
+        int i1 = lastColumn(x1);
+        int j1 = lastRow(y1);
+        for (int i = firstColumn(x0); i <= i1; i++) {
+            for (int j = firstRow(y0); j <= j1; j++) {
+                Bitmap sprite = renderedSprites[i - renderedX][j - renderedY];
+                if (sprite != null) {
                     // If this cell has a entity in it
-                    // To draw the image of a piece
-                    BufferedImage charImge = cell.getCharImg();
-                    BufferedImage image = ImageManager.resizeImage(charImge,
-                            INIT_IMAGE_RESIZE_FACTOR * ((double) Consts.getRectsize() / (double) charImge.getWidth()));
-                    int w = image.getWidth();
-                    int h = image.getHeight();
-                    Bitmap result = new Bitmap(w, h);
-                    image.getRGB(0, 0, w, h, result.pixels, 0, w);
-
-                    screen.render(result, i*Consts.getRectsize() + Consts.MAP_X_OFFSET,
-                            j*Consts.getRectsize()+Consts.MAP_Y_OFFSET+INIT_IMAGE_Y_OFFSET);
+                    // To draw the pre-scaled image of a piece
+                    target.render(sprite, view.toScreenX(i), view.toScreenY(j) + INIT_IMAGE_Y_OFFSET);
                 }
             }
         }
+        target.setClip(x, y, w, h);
     }
 
     /********************************************************************
-     * renderMaskMatrix: draws the shadow on cells according to data
-     * stored in int MaskMatrix[][]
+     * renderMaskMatrix: draws the shadow on cells in a part of the
+     * screen according to data stored in int MaskMatrix[][]
      * highlight a cell if value of the cell less than 0
      * diminish a cell if value of the cell greater than 0
      *********************************************************************/
 
-    private void renderMaskMatrix(Graphics2D g2) {
-        for (int i = 0; i < Consts.getBSIZE(); i++) {
-            for (int j = 0; j < Consts.getBSIZE(); j++) {
-                if (maskMatrix[i][j] < 0)
+    private void renderMaskMatrix(Graphics2D g2, int x, int y, int w, int h) {
+        int i1 = lastColumn(x + w);
+        int j1 = lastRow(y + h);
+        for (int i = firstColumn(x); i <= i1; i++) {
+            for (int j = firstRow(y); j <= j1; j++) {
+                int mask = renderedMask[i - renderedX][j - renderedY];
+                if (mask < 0)
                     Rectmech.highlight(i, j, g2);
-                else if(maskMatrix[i][j] > 0)
+                else if(mask > 0)
                     Rectmech.diminish(i, j, g2);
             }
         }
@@ -234,21 +672,24 @@ class GridPanelRunnable extends Canvas implements  Runnable {
 
     private void movePiece(Point p) {
         setScreenLock(true);
-        int steps = GameController.singleton().moveHandler(p);
-        setSelectableMatrix(p.x, p.y, steps, false);
+        ReachabilityField range = GameController.singleton().moveHandler(p);
+        setMovableMatrix(range);
+        requestFrame();
     }
 
     private void beforeAttack(Point p) {
         setScreenLock(true);
-        int range = GameController.singleton().attackHandler(p);
-        setSelectableMatrix(p.x, p.y, range, true);
+        TargetSet targets = GameController.singleton().attackHandler(p);
+        setTargetMatrix(targets);
+        requestFrame();
         attackMode = Consts.ATTACK_MODE;
     }
 
     private void beforeInvoke(Point p) {
         setScreenLock(true);
-        int range = GameController.singleton().invokeHandler(p);
-        setSelectableMatrix(p.x, p.y, range, true);
+        TargetSet targets = GameController.singleton().invokeHandler(p);
+        setTargetMatrix(targets);
+        requestFrame();
         attackMode = Consts.INVOKE_MODE;
     }
 
@@ -264,6 +705,7 @@ class GridPanelRunnable extends Canvas implements  Runnable {
         setScreenLock(false);
         GameController.singleton().doMove(p);
         resetMaskMatrix();
+        requestFrame();
     }
 
     public void attack(Point p) {
@@ -271,6 +713,7 @@ class GridPanelRunnable extends Canvas implements  Runnable {
         GameController.singleton().doAttack(p);
         resetMaskMatrix();
         cellBeingAttack = p;
+        requestFrame();
 
     }
 
@@ -279,46 +722,44 @@ class GridPanelRunnable extends Canvas implements  Runnable {
         GameController.singleton().invoke(p);
         resetMaskMatrix();
         cellBeingAttack = p;
+        requestFrame();
     }
 
     public void doNothing() {
         setScreenLock(false);
         resetMaskMatrix();
-    }
-
-    private int dist(int x, int y, int x1, int y1) {
-        return Math.abs(x1-x) + Math.abs(y1-y);
+        requestFrame();
     }
 
     /********************************************************************
      * setMovableMatrix: It sets the cell value of non-movable area to 1
-     * int step: number of step can move of a piece
+     * ReachabilityField range: the cells the piece can reach, only
+     * these cells are written, the others are non-selectable by default
      *********************************************************************/
 
-    private void setSelectableMatrix(int x, int y, int range, boolean isEntitySelectable) {
-        for (int i = 0; i < Consts.getBSIZE(); i++) {
-            for (int j = 0; j < Consts.getBSIZE(); j++) {
-                if (dist(x, y, i, j) > range) {
-                    maskMatrix[i][j] = MxMouseListener.NONSELECTABLE;
-                } else {
-
-                }
-                BoardCell cell = gameController.getBoardCell(i, j);
-                if (isEntitySelectable) {
-                    if(cell.getEntity() == null) {
-                        maskMatrix[i][j] = MxMouseListener.NONSELECTABLE;
-                    }
-                } else {
-                    if(cell.getEntity() != null) {
-                        maskMatrix[i][j] = MxMouseListener.NONSELECTABLE;
-                    }
+    private void setMovableMatrix(ReachabilityField range) {
+        clearMask(MxMouseListener.NONSELECTABLE);
+        int size = range.size();
+        // The first reached cell is the piece itself, it stays non-selectable
+        for (int i = 1; i < range.getReachedCount(); i++) {
+            int cell = range.getReachedCell(i);
+            setMask(cell / size, cell % size, MxMouseListener.SELECTABLE);
+        }
+    }
 
-                }
+    /********************************************************************
+     * setTargetMatrix: It sets the cell value of every cell except the
+     * valid targets to 1
+     * TargetSet targets: the pieces the action can be applied to, only
+     * these cells are written, the others are non-selectable by default
+     *********************************************************************/
 
-            }
+    private void setTargetMatrix(TargetSet targets) {
+        clearMask(MxMouseListener.NONSELECTABLE);
+        for (int i = 0; i < targets.getTargetCount(); i++) {
+            Entity e = targets.getTarget(i);
+            setMask(e.getXPos(), e.getYPos(), MxMouseListener.SELECTABLE);
         }
-        maskMatrix[x][y] = MxMouseListener.NONSELECTABLE;
-        //repaint();
     }
 
     /********************************************************************
@@ -326,12 +767,63 @@ class GridPanelRunnable extends Canvas implements  Runnable {
      *********************************************************************/
 
     private void resetMaskMatrix() {
-        for (int i = 0; i < Consts.getBSIZE(); i++) {
-            for (int j = 0; j < Consts.getBSIZE(); j++) {
-                maskMatrix[i][j] = MxMouseListener.SELECTABLE;
+        clearMask(MxMouseListener.SELECTABLE);
+    }
+
+    /********************************************************************
+     * clearMask: gives every cell the same value without visiting them,
+     * the cells written before get a stale stamp
+     * int value: the value of every cell
+     *********************************************************************/
+
+    private void clearMask(int value) {
+        maskDefault = value;
+        if (++maskVersion == 0) {
+            // The stamps wrapped around, the old ones could match again
+            for (int[] chunk : maskStamp) {
+                if (chunk != null) Arrays.fill(chunk, 0);
             }
+            maskVersion = 1;
         }
-        //repaint();
+    }
+
+    /********************************************************************
+     * getMask: the value of a cell in the mask, SELECTABLE,
+     * NONSELECTABLE or HIGHLIGHTED of MxMouseListener
+     *********************************************************************/
+
+    int getMask(int x, int y) {
+        int c = maskChunk(x, y);
+        int[] stamps = maskStamp[c];
+        if (stamps == null) return maskDefault;
+        int k = maskCell(x, y);
+        return stamps[k] == maskVersion ? maskMatrix[c][k] : maskDefault;
+    }
+
+    /********************************************************************
+     * setMask: sets the value of a cell in the mask until the next reset
+     *********************************************************************/
+
+    void setMask(int x, int y, int value) {
+        int c = maskChunk(x, y);
+        if (maskStamp[c] == null) {
+            maskMatrix[c] = new int[MASK_CHUNK_SIZE * MASK_CHUNK_SIZE];
+            maskStamp[c] = new int[MASK_CHUNK_SIZE * MASK_CHUNK_SIZE];
+        }
+        int k = maskCell(x, y);
+        maskMatrix[c][k] = value;
+        maskStamp[c][k] = maskVersion;
+    }
+
+    private int maskChunk(int x, int y) {
+        if (x < 0 || y < 0 || x >= maskSize || y >= maskSize) {
+            throw new ArrayIndexOutOfBoundsException("Cell " + x + ", " + y + " is off the board");
+        }
+        return (x >> MASK_CHUNK_SHIFT) * maskChunks + (y >> MASK_CHUNK_SHIFT);
+    }
+
+    private static int maskCell(int x, int y) {
+        return (x & MASK_CHUNK_MASK) << MASK_CHUNK_SHIFT | (y & MASK_CHUNK_MASK);
     }
 
     /********************************************************************
@@ -339,12 +831,11 @@ class GridPanelRunnable extends Canvas implements  Runnable {
      *********************************************************************/
 
     private void initMaskMatrix() {
-        this.maskMatrix = new int[Consts.getBSIZE()][Consts.getBSIZE()];
-        for (int i = 0; i < Consts.getBSIZE(); i++) {
-            for (int j = 0; j < Consts.getBSIZE(); j++) {
-                maskMatrix[i][j] = MxMouseListener.SELECTABLE;
-            }
-        }
+        maskSize = Consts.getBSIZE();
+        maskChunks = (maskSize + MASK_CHUNK_MASK) >> MASK_CHUNK_SHIFT;
+        this.maskMatrix = new int[maskChunks * maskChunks][];
+        this.maskStamp = new int[maskChunks * maskChunks][];
+        clearMask(MxMouseListener.SELECTABLE);
     }
 
     /***************************************************************************
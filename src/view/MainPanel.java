@@ -33,6 +33,9 @@ public class MainPanel {
     /** The setting panel. */
     private SettingPanel settingPanel;
 
+    /** True, if the performance counters are shown. */
+    private static boolean hudVisible;
+
 
     /**
      * Instantiates a new main panel.
@@ -88,8 +91,16 @@ public class MainPanel {
         gameController.startGame(bsize, num_pieces, num_weapons);
         content.remove(settingPanel);
         frame.setSize(Consts.SCR_WIDTH, Consts.SCR_HEIGHT);
+        initGameView();
+    }
+
+    /**
+     * Creates the game view for the board size in Consts.
+     */
+    private void initGameView() {
         gameview = new GridPanelRunnable(gameController);
         content.add(gameview);
+        gameview.setHudVisible(hudVisible);
         gameview.start();
     }
 
@@ -116,6 +127,15 @@ public class MainPanel {
      */
     public void undo() {
         gameController.undo();
+        requestRender();
+    }
+
+    /**
+     * Redo.
+     */
+    public void redo() {
+        gameController.redo();
+        requestRender();
     }
 
     /**
@@ -129,7 +149,37 @@ public class MainPanel {
      * Load.
      */
     public void load() {
+        int bsize = Consts.getBSIZE();
         gameController.loadGame();
+        if(Consts.getBSIZE() != bsize) {
+            // The view is sized to the board, rebuild it for the loaded one
+            gameview.stop();
+            content.remove(gameview);
+            initGameView();
+            content.validate();
+        }
+        requestRender();
+    }
+
+    /**
+     * Shows or hides the performance counters on the game view.
+     *
+     * @param visible true, to show the counters
+     */
+    public static void setHudVisible(boolean visible) {
+        hudVisible = visible;
+        if(gameview != null) {
+            gameview.setHudVisible(visible);
+        }
+    }
+
+    /**
+     * Asks the game view for a new frame, e.g. after the model changed.
+     */
+    public static void requestRender() {
+        if(gameview != null) {
+            gameview.requestFrame();
+        }
     }
 
     public static void setAttackEffect(String type) {
@@ -144,6 +194,7 @@ public class MainPanel {
      */
     public static void showVerbose(String message, long timeLimit) {
         Verbose.verbose(message, timeLimit);
+        requestRender();
 
     }
 
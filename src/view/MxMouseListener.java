@@ -7,6 +7,8 @@ import resources.Consts;
 import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import javax.swing.SwingUtilities;
 
 /**
  * Created by Human v Alien Team on 2016/4/12.
@@ -18,6 +20,7 @@ class MxMouseListener extends MouseAdapter {    //inner class inside DrawingPane
     public static final int HIGHLIGHTED = -1;
     private GridPanelRunnable panel;
     private GameController gameController;
+    private Point dragFrom; // where the board is held while it is dragged, null if it is not
     public MxMouseListener(GridPanelRunnable panel, GameController controller) {
         this.panel = panel;
         this.gameController = controller;
@@ -40,12 +43,11 @@ class MxMouseListener extends MouseAdapter {    //inner class inside DrawingPane
         } catch (IndexOutOfBoundsException ie) {
             return;
         }
-        Entity t = gameController.getBoardCell(p.x, p.y).getEntity();
-
         // Do nothing if mouse click the area out of bound
         if (p.x < 0 || p.y < 0 || p.x >= Consts.getBSIZE() || p.y >= Consts.getBSIZE()) return;
+        Entity t = gameController.getEntity(p.x, p.y);
 
-        if (panel.isScreenLocked() && panel.maskMatrix[p.x][p.y] != NONSELECTABLE) {
+        if (panel.isScreenLocked() && panel.getMask(p.x, p.y) != NONSELECTABLE) {
             // TODO: To call moveTo(Point p) in GridPanelRunnable if no entity in clicked cell
 
             if (t != null) {
@@ -91,7 +93,7 @@ class MxMouseListener extends MouseAdapter {    //inner class inside DrawingPane
         Entity entity;
         try {
 
-            entity = gameController.getBoardCell(p.x, p.y).getEntity();
+            entity = gameController.getEntity(p.x, p.y);
         } catch (ArrayIndexOutOfBoundsException exception) {
             return;
         }
@@ -100,17 +102,51 @@ class MxMouseListener extends MouseAdapter {    //inner class inside DrawingPane
         // Do nothing if cursor move over a cell has a n entity in it
         if (panel.isScreenLocked() && entity != null) return;
         // Do nothing if cursor move over non-selectable area
-        if (panel.maskMatrix[p.x][p.y] == NONSELECTABLE) return;
+        if (panel.getMask(p.x, p.y) == NONSELECTABLE) return;
         // highlight the cell when cursor is hovering over it.
+        boolean changed = panel.getMask(p.x, p.y) != HIGHLIGHTED;
         if (!p.equals(panel.cursorXYPos)) {
+            changed = true;
             // Set the color of a cell, which has been hovered over, to normal
-            if(panel.maskMatrix[panel.cursorXYPos.x][panel.cursorXYPos.y] != NONSELECTABLE)
-                panel.maskMatrix[panel.cursorXYPos.x][panel.cursorXYPos.y] = SELECTABLE;
+            if(panel.getMask(panel.cursorXYPos.x, panel.cursorXYPos.y) != NONSELECTABLE)
+                panel.setMask(panel.cursorXYPos.x, panel.cursorXYPos.y, SELECTABLE);
             // Keep the coordinator in cursorXYPos
             panel.cursorXYPos = new model.gameModel.Point(p);
-            if(entity != null) DashBoard.parseCharInfo(entity.toString());
+            if(entity != null) DashBoard.showCharInfo(entity);
+        }
+        panel.setMask(p.x, p.y, HIGHLIGHTED);
+        // Only wake the render thread if the hover changed what is shown
+        if (changed) panel.requestFrame();
+    }
+
+    /***************************************************************************
+     * To zoom the board around the cursor with the mouse wheel
+     *****************************************************************************/
+    @Override
+    public void mouseWheelMoved(MouseWheelEvent e) {
+        panel.zoom(e.getX(), e.getY(), -e.getWheelRotation());
+    }
+
+    /***************************************************************************
+     * To pan the board by dragging it with the right or middle button
+     *****************************************************************************/
+    @Override
+    public void mousePressed(MouseEvent e) {
+        if (SwingUtilities.isRightMouseButton(e) || SwingUtilities.isMiddleMouseButton(e)) {
+            dragFrom = e.getPoint();
         }
-        panel.maskMatrix[p.x][p.y] = HIGHLIGHTED;
+    }
+
+    @Override
+    public void mouseDragged(MouseEvent e) {
+        if (dragFrom == null) return;
+        panel.pan(dragFrom.x - e.getX(), dragFrom.y - e.getY());
+        dragFrom = e.getPoint();
+    }
+
+    @Override
+    public void mouseReleased(MouseEvent e) {
+        dragFrom = null;
     }
 
 } //end of MxMouseListener class
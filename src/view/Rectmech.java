@@ -13,6 +13,7 @@ public class Rectmech {
 	// Constants
 
 	private static int l = 0; // length of each side.
+	private static int originX = 0, originY = 0; // board pixel in the top left of the map
 
 	/**
 	 * This functions takes the Side length in pixels and uses that as the basic
@@ -23,6 +24,15 @@ public class Rectmech {
 		l = length; 
 	}
 
+	/**
+	 * Sets the board pixel shown in the top left corner of the map, for
+	 * a board that is panned.
+	 */
+	public static void setOrigin(int x, int y) {
+		originX = x;
+		originY = y;
+	}
+
 	/*********************************************************
 	 * Name: rect() Parameters: (x,y) This point is normally the top left
 	 * corner of the rectangle 
@@ -31,8 +41,8 @@ public class Rectmech {
 	 *********************************************************/
 	public static Rectangle rect(int x, int y) {
 
-		x += Consts.MAP_X_OFFSET;
-		y += Consts.MAP_Y_OFFSET;
+		x += Consts.MAP_X_OFFSET - originX;
+		y += Consts.MAP_Y_OFFSET - originY;
 		
 		if (l == 0) {
 			System.out.println("ERROR: size of rectangle has not been set");
@@ -112,11 +122,15 @@ public class Rectmech {
 	// location
 	/*****************************************************************************
 	 * Name: pxtoRect (pixel to Rectangle) Parameters: mx, my. 
+	 * Returns (-1, -1) outside the map, where cells may be hidden.
 	 *****************************************************************************/
 	public static Point pxtoRect(int mx, int my) {
 		Point p = new Point(-1, -1);
 		mx -= Consts.MAP_X_OFFSET;
 		my -= Consts.MAP_Y_OFFSET;
+		if (mx < 0 || my < 0 || mx >= Consts.BOARD_WIDTH || my >= Consts.BOARD_HIGHT) return p;
+		mx += originX;
+		my += originY;
 
 		int x = (int) (mx / l); int y = (int) (my / l);
 		p.x = x;
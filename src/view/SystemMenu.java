@@ -22,6 +22,8 @@ public class SystemMenu extends JMenuBar {
     private static final String PAUSE = "Pause";
     private static final String START = "Start";
     private static final String UNDO = "Undo";
+    private static final String REDO = "Redo";
+    private static final String HUD = "Performance";
 
     private static final String EXIT_CONFIRM_MESSAGE = "Click Yes button to exit Human v Alien Game";
     private static final String EXIT_PROGRESSING_MESSAGE = "Program is exiting ...";
@@ -38,6 +40,8 @@ public class SystemMenu extends JMenuBar {
     private JMenuItem pause = new JMenuItem(PAUSE);
     private JMenuItem start = new JMenuItem(START);
     private JMenuItem undo = new JMenuItem(UNDO);
+    private JMenuItem redo = new JMenuItem(REDO);
+    private JCheckBoxMenuItem hud = new JCheckBoxMenuItem(HUD);
 
     /*SystemMenu(LibraryController controller) {
         this.controller = controller;
@@ -97,6 +101,8 @@ public class SystemMenu extends JMenuBar {
         menu.add(pause);
         menu.add(start);
         menu.add(undo);
+        menu.add(redo);
+        menu.add(hud);
 
         // Add action listener to Load data option for reading data from file
         pause.addActionListener(new ActionListener() {
@@ -122,6 +128,22 @@ public class SystemMenu extends JMenuBar {
             }
         });
 
+        // Add action listener to redo option for redoing an undone action
+        redo.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                mainPanel.redo();
+            }
+        });
+
+        // Add action listener to show or hide the performance counters
+        hud.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent event) {
+                MainPanel.setHudVisible(hud.isSelected());
+            }
+        });
+
         add(menu);
     }
 }
\ No newline at end of file
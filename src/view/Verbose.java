@@ -3,9 +3,11 @@
  */
 package view;
 
-import model.graphicModel.GameScreen;
+import model.graphicModel.Bitmap;
 import resources.Consts;
 
+import java.awt.Rectangle;
+
 // TODO: Auto-generated Javadoc
 /**
  * Created by blahblah Team on 2016/4/19.
@@ -22,18 +24,60 @@ public class Verbose {
     /** The time limit. */
     private static long timeLimit = 2500;
 
+    /** The height of the block font. */
+    private static final int FONT_HEIGHT = 32;
+
+    /** The number of messages shown so far. */
+    private static int version;
+
     /**
      * Render.
      *
      * @param screen the screen for rendering
      */
-    public static void render(GameScreen screen) {
+    public static void render(Bitmap screen) {
+        if(isShowing()) {
+            Rectangle bounds = getBounds();
+            Font.draw_blockfont(screen, verboseMessage, bounds.x, bounds.y);
+        }
+    }
+
+    /**
+     * Checks if the message is still shown.
+     *
+     * @return true, if the time limit has not passed yet
+     */
+    public static boolean isShowing() {
+        return System.currentTimeMillis() - verboseTime < timeLimit;
+    }
+
+    /**
+     * Gets the time the message stops being shown.
+     *
+     * @return the time in milliseconds
+     */
+    public static long getExpiryTime() {
+        return verboseTime + timeLimit;
+    }
+
+    /**
+     * Gets the area of the screen the message is drawn on.
+     *
+     * @return the bounds
+     */
+    public static Rectangle getBounds() {
         int width = Font.getStringWidth(verboseMessage);
-        if(System.currentTimeMillis() - verboseTime < timeLimit)
-            Font.draw_blockfont(screen,
-                    verboseMessage,
-                    (Consts.SCR_WIDTH - Consts.MAP_X_OFFSET) / 2 + Consts.MAP_X_OFFSET - width / 2,
-                    Consts.SCR_HEIGHT / 2);
+        return new Rectangle((Consts.SCR_WIDTH - Consts.MAP_X_OFFSET) / 2 + Consts.MAP_X_OFFSET - width / 2,
+                Consts.SCR_HEIGHT / 2, width, FONT_HEIGHT);
+    }
+
+    /**
+     * Gets the number of messages shown so far.
+     *
+     * @return the version
+     */
+    public static int getVersion() {
+        return version;
     }
 
     /**
@@ -46,5 +90,6 @@ public class Verbose {
         verboseMessage = message;
         verboseTime = System.currentTimeMillis();
         timeLimit = limit;
+        version++;
     }
 }
@@ -0,0 +1,97 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.Random;
+
+import model.graphicModel.ImageManager;
+
+import org.junit.Test;
+
+/**
+ * The chunked board holds the same cells as a plain array board.
+ */
+public class ChunkedBoardTest {
+
+    private static final long SEED = 11L;
+
+    @Test
+    public void matchesAnArrayBoard() {
+        // Not a multiple of the chunk size, so the last chunks are partial
+        for (int size : new int[] {1, 31, 32, 33, 100}) {
+            checkParity(size, new Random(size));
+        }
+    }
+
+    @Test
+    public void emptyBoardAllocatesNothing() {
+        ChunkedBoard board = new ChunkedBoard(4096, SEED);
+        board.setEntity(5, 5, null);
+        board.setWeapon(4000, 4000, null);
+        assertEquals(ImageManager.getTileIndex(SEED, 17, 4095), board.getTile(17, 4095));
+        assertEquals(0, board.getAllocatedChunks());
+        board.setEntity(4095, 4095, new Entity("e"));
+        assertEquals(1, board.getAllocatedChunks());
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void rejectsCellsOffTheBoard() {
+        new ChunkedBoard(40, SEED).getEntity(40, 0);
+    }
+
+    private void checkParity(int size, Random rand) {
+        ChunkedBoard board = new ChunkedBoard(size, SEED);
+        Entity[][] entities = new Entity[size][size];
+        Weapon[][] weapons = new Weapon[size][size];
+        int[][] tiles = new int[size][size];
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                tiles[x][y] = ImageManager.getTileIndex(SEED, x, y);
+            }
+        }
+        Entity[] pieces = new Entity[8];
+        for (int i = 0; i < pieces.length; i++) {
+            pieces[i] = new Entity("e" + i);
+        }
+        for (int step = 0; step < 20000; step++) {
+            int x = rand.nextInt(size);
+            int y = rand.nextInt(size);
+            switch (rand.nextInt(4)) {
+                case 0:
+                    Entity e = rand.nextInt(3) == 0 ? null : pieces[rand.nextInt(pieces.length)];
+                    board.setEntity(x, y, e);
+                    entities[x][y] = e;
+                    break;
+                case 1:
+                    Weapon w = rand.nextInt(3) == 0 ? null : new Weapon(rand.nextInt(6));
+                    board.setWeapon(x, y, w);
+                    weapons[x][y] = w;
+                    break;
+                case 2:
+                    int t = rand.nextInt(ImageManager.NUM_TILES) + 1;
+                    board.setTile(x, y, t);
+                    tiles[x][y] = t;
+                    break;
+                default:
+                    BoardCell cell = new BoardCell(board, x, y);
+                    assertSame(entities[x][y], cell.getEntity());
+                    assertSame(weapons[x][y], cell.getWeapon());
+                    assertEquals(tiles[x][y], cell.getTile());
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                assertSame(entities[x][y], board.getEntity(x, y));
+                assertSame(weapons[x][y], board.getWeapon(x, y));
+                assertEquals(tiles[x][y], board.getTile(x, y));
+            }
+        }
+        board.clearEntities();
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                assertSame(null, board.getEntity(x, y));
+            }
+        }
+    }
+}
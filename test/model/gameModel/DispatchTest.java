@@ -0,0 +1,47 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+/**
+ * Every piece of a new game gets a square of its own, also for teams
+ * larger than the dispatch grid around their leader.
+ */
+public class DispatchTest {
+
+    @Test
+    public void largeTeamsAreDispatched() {
+        checkDispatch(128, 200, 80);
+        checkDispatch(12, 60, 24);
+    }
+
+    @Test
+    public void crowdedBoardIsFilled() {
+        checkDispatch(6, 18, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void piecesThatDoNotFitAreRejected() {
+        new GameSettings(12, 80, 20);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void tooSmallBoardIsRejected() {
+        new GameSettings(5, 1, 0);
+    }
+
+    private void checkDispatch(int size, int pieces, int weapons) {
+        for (long seed = 0; seed < 10; seed++) {
+            GameBoard board = new GameBoard(new HeadlessGameListener(),
+                    new GameSettings(size, pieces, weapons, false, seed));
+            int placed = 0;
+            for (int x = 0; x < size; x++) {
+                for (int y = 0; y < size; y++) {
+                    if (board.getEntity(x, y) != null) placed++;
+                }
+            }
+            assertEquals("seed " + seed, 2 * pieces, placed);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package model.gameModel;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Helpers shared by the game tests.
+ */
+final class GameStates {
+
+    private GameStates() {}
+
+    /**
+     * Creates a headless game of a fixed seed.
+     *
+     * @param seed the seed of the game
+     * @param entityStore whether entity stats are kept in an EntityStore
+     * @return the game board
+     */
+    static GameBoard newGame(long seed, boolean entityStore) {
+        return new GameBoard(new HeadlessGameListener(), new GameSettings(24, 12, 60, entityStore, seed));
+    }
+
+    /**
+     * Encodes the game data of a board, so two states compare as bytes.
+     *
+     * @param board the game board
+     * @return the save file of the board
+     */
+    static byte[] encode(GameBoard board) throws IOException {
+        return encode(board.createSnapshot());
+    }
+
+    static byte[] encode(GameSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SaveGameFormat.write(snapshot, out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Checks if the last action in the journal can be undone, i.e. it
+     * is not a passed turn.
+     *
+     * @param board the game board
+     * @param size the journal size before the action
+     * @return true, if an action was recorded and it was not a pass
+     */
+    static boolean isUndoable(GameBoard board, int size) {
+        CommandJournal journal = board.getJournal();
+        return journal.size() > size && journal.getType(journal.size() - 1) != CommandJournal.PASS;
+    }
+}
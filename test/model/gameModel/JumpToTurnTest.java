@@ -0,0 +1,81 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import model.simulation.RandomPlayer;
+
+import org.junit.Test;
+
+/**
+ * Jumping to a turn of the journal gives the same state the game was
+ * in at the start of that turn.
+ */
+public class JumpToTurnTest {
+
+    @Test
+    public void jumpGivesTheStateOfTheTurn() throws Exception {
+        for (long seed = 0; seed < 6; seed++) {
+            GameBoard board = GameStates.newGame(seed, seed % 2 == 1);
+            board.enableJournal(20);
+            RandomPlayer player = new RandomPlayer(new Random(seed));
+            Map<Integer, byte[]> states = new HashMap<Integer, byte[]>();
+            states.put(board.getTurn(), GameStates.encode(board));
+            while (board.getTurn() < 150 && board.getWinner() < 0) {
+                player.playTurn(board);
+                states.put(board.getTurn(), GameStates.encode(board));
+            }
+            int last = board.getTurn();
+            int[] targets = {0, 1, 19, 20, 21, last / 2, last - 1, last, 5};
+            for (int t : targets) {
+                assertEquals(t, board.jumpToTurn(t));
+                assertArrayEquals("seed " + seed + " turn " + t, states.get(t), GameStates.encode(board));
+            }
+        }
+    }
+
+    @Test
+    public void playAfterJumpBranchesTheJournal() throws Exception {
+        GameBoard board = GameStates.newGame(3, false);
+        board.enableJournal(20);
+        RandomPlayer player = new RandomPlayer(new Random(3));
+        while (board.getTurn() < 80 && board.getWinner() < 0) {
+            player.playTurn(board);
+        }
+        board.jumpToTurn(10);
+        Map<Integer, byte[]> states = new HashMap<Integer, byte[]>();
+        states.put(board.getTurn(), GameStates.encode(board));
+        for (int i = 0; i < 30 && board.getWinner() < 0; i++) {
+            player.playTurn(board);
+            states.put(board.getTurn(), GameStates.encode(board));
+        }
+        int last = board.getTurn();
+        // The actions after turn 10 of the first line of play are gone
+        assertTrue(board.getJournal().getLastTurn() <= last);
+        for (int t = 10; t <= last; t += 7) {
+            board.jumpToTurn(t);
+            assertArrayEquals("turn " + t, states.get(t), GameStates.encode(board));
+        }
+    }
+
+    @Test
+    public void restoreKeepsTheWinner() throws Exception {
+        GameBoard board = GameStates.newGame(5, false);
+        RandomPlayer player = new RandomPlayer(new Random(5));
+        while (board.getTurn() < 3000 && board.getWinner() < 0) {
+            player.playTurn(board);
+        }
+        assertTrue(board.getWinner() >= 0);
+        GameSnapshot snapshot = board.createSnapshot();
+        assertEquals(board.getWinner(), snapshot.getWinner());
+
+        GameBoard restored = GameStates.newGame(5, false);
+        restored.restoreSnapshot(snapshot);
+        assertEquals(board.getWinner(), restored.getWinner());
+    }
+}
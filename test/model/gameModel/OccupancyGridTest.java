@@ -0,0 +1,95 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The occupancy grid holds the same cells, and records the same
+ * changed cells in the same order, as a plain array board.
+ */
+public class OccupancyGridTest {
+
+    @Test
+    public void matchesAnArrayBoard() {
+        for (int size : new int[] {1, 33, 70}) {
+            checkParity(size, new Random(size));
+        }
+    }
+
+    @Test
+    public void cellsOffTheBoardAreIgnored() {
+        OccupancyGrid grid = new OccupancyGrid(10);
+        Entity e = new Entity("e");
+        grid.put(-1, -1, e);
+        grid.put(10, 3, e);
+        grid.markDirty(3, 10);
+        assertSame(null, grid.get(-1, -1));
+        assertEquals(0, grid.getDirtyCount());
+    }
+
+    private void checkParity(int size, Random rand) {
+        OccupancyGrid grid = new OccupancyGrid(size);
+        Entity[][] cells = new Entity[size][size];
+        LinkedHashSet<Integer> dirty = new LinkedHashSet<Integer>();
+        List<Entity> pieces = new ArrayList<Entity>();
+        for (int i = 0; i < 10; i++) {
+            pieces.add(new Entity("e" + i));
+        }
+        for (int step = 0; step < 20000; step++) {
+            int x = rand.nextInt(size);
+            int y = rand.nextInt(size);
+            switch (rand.nextInt(5)) {
+                case 0:
+                    Entity e = pieces.get(rand.nextInt(pieces.size()));
+                    grid.put(x, y, e);
+                    cells[x][y] = e;
+                    dirty.add(x * size + y);
+                    break;
+                case 1:
+                    int nx = rand.nextInt(size);
+                    int ny = rand.nextInt(size);
+                    Entity m = rand.nextBoolean() ? cells[x][y] : pieces.get(0);
+                    grid.move(m, x, y, nx, ny);
+                    if (cells[x][y] == m) {
+                        cells[x][y] = null;
+                        dirty.add(x * size + y);
+                    }
+                    cells[nx][ny] = m;
+                    dirty.add(nx * size + ny);
+                    break;
+                case 2:
+                    grid.markDirty(x, y);
+                    dirty.add(x * size + y);
+                    break;
+                case 3:
+                    List<Integer> expected = new ArrayList<Integer>(dirty);
+                    assertEquals(expected.size(), grid.getDirtyCount());
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertEquals((int) expected.get(i), grid.getDirtyCell(i));
+                    }
+                    if (rand.nextInt(4) == 0) {
+                        grid.clearDirty();
+                        dirty.clear();
+                    }
+                    break;
+                default:
+                    assertSame(cells[x][y], grid.get(x, y));
+            }
+        }
+        for (int x = 0; x < size; x++) {
+            for (int y = 0; y < size; y++) {
+                assertSame(cells[x][y], grid.get(x, y));
+            }
+        }
+        grid.clear();
+        assertEquals(0, grid.getDirtyCount());
+        assertSame(null, grid.get(size - 1, size - 1));
+    }
+}
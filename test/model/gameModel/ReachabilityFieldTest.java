@@ -0,0 +1,82 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * The reachability field gives the same distances as a search over
+ * the whole board.
+ */
+public class ReachabilityFieldTest {
+
+    @Test
+    public void matchesAFullBoardSearch() {
+        Random rand = new Random(5);
+        for (int size : new int[] {1, 8, 40}) {
+            OccupancyGrid grid = new OccupancyGrid(size);
+            for (int i = 0; i < size * size / 4; i++) {
+                grid.put(rand.nextInt(size), rand.nextInt(size), new Entity("e" + i));
+            }
+            // One field for all searches, so stale stamps would show
+            ReachabilityField field = new ReachabilityField(size);
+            for (int search = 0; search < 300; search++) {
+                int x = rand.nextInt(size);
+                int y = rand.nextInt(size);
+                int range = rand.nextInt(6);
+                int count = field.compute(grid, x, y, range);
+                int[][] expected = search(grid, size, x, y, range);
+                int reached = 0;
+                for (int i = -1; i <= size; i++) {
+                    for (int j = -1; j <= size; j++) {
+                        int d = i < 0 || j < 0 || i >= size || j >= size ? -1 : expected[i][j];
+                        assertEquals("cell " + i + ", " + j, d, field.getDistance(i, j));
+                        assertEquals(d >= 0, field.isReachable(i, j));
+                        if (d >= 0) reached++;
+                    }
+                }
+                assertEquals(reached, count);
+                assertEquals(reached, field.getReachedCount());
+                for (int k = 0; k < count; k++) {
+                    int cell = field.getReachedCell(k);
+                    assertEquals(true, expected[cell / size][cell % size] >= 0);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void nothingIsReachedFromOffTheBoard() {
+        ReachabilityField field = new ReachabilityField(10);
+        assertEquals(0, field.compute(new OccupancyGrid(10), -1, -1, 3));
+        assertEquals(false, field.isReachable(0, 0));
+    }
+
+    /** Breadth-first search over the whole board, -1 where not reached. */
+    private static int[][] search(OccupancyGrid grid, int size, int x, int y, int range) {
+        int[][] distance = new int[size][size];
+        for (int[] row : distance) {
+            Arrays.fill(row, -1);
+        }
+        ArrayDeque<int[]> queue = new ArrayDeque<int[]>();
+        distance[x][y] = 0;
+        queue.add(new int[] {x, y});
+        while (!queue.isEmpty()) {
+            int[] c = queue.poll();
+            int d = distance[c[0]][c[1]];
+            if (d == range) continue;
+            int[][] next = {{c[0] + 1, c[1]}, {c[0] - 1, c[1]}, {c[0], c[1] + 1}, {c[0], c[1] - 1}};
+            for (int[] n : next) {
+                if (n[0] < 0 || n[1] < 0 || n[0] >= size || n[1] >= size) continue;
+                if (distance[n[0]][n[1]] >= 0 || grid.get(n[0], n[1]) != null) continue;
+                distance[n[0]][n[1]] = d + 1;
+                queue.add(n);
+            }
+        }
+        return distance;
+    }
+}
@@ -0,0 +1,140 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+import model.simulation.RandomPlayer;
+
+import org.junit.Test;
+
+/**
+ * A saved game loads back into the same game.
+ */
+public class SaveGameFormatTest {
+
+    @Test
+    public void snapshotSurvivesWriteAndRead() throws Exception {
+        GameBoard board = playedGame(1, false, 60);
+        byte[] saved = GameStates.encode(board);
+        GameSnapshot read = SaveGameFormat.read(new ByteArrayInputStream(saved));
+        assertArrayEquals(saved, GameStates.encode(read));
+    }
+
+    @Test
+    public void loadedGameEqualsSavedGame() throws Exception {
+        for (long seed = 0; seed < 6; seed++) {
+            GameBoard board = playedGame(seed, seed % 2 == 0, 40);
+            GameSnapshot loaded = SaveGameFormat.read(new ByteArrayInputStream(GameStates.encode(board)));
+            GameBoard other = GameStates.newGame(seed + 100, seed % 2 == 0);
+            other.restoreSnapshot(loaded);
+            assertArrayEquals("seed " + seed, GameStates.encode(board), GameStates.encode(other));
+            assertEquals(board.getTurn(), other.getTurn());
+            assertEquals(board.getTeamOnMove(), other.getTeamOnMove());
+            // The tiles are the ones of the saved game, picked again from its seed
+            assertEquals(board.getTileSeed(), other.getTileSeed());
+            for (int x = 0; x < 24; x++) {
+                for (int y = 0; y < 24; y++) {
+                    assertEquals(board.getBoardCell(x, y).getTile(), other.getBoardCell(x, y).getTile());
+                }
+            }
+        }
+    }
+
+    @Test
+    public void wonGameLoadsWon() throws Exception {
+        GameBoard board = playedGame(5, false, 3000);
+        assertTrue(board.getWinner() >= 0);
+        GameSnapshot loaded = SaveGameFormat.read(new ByteArrayInputStream(GameStates.encode(board)));
+        assertEquals(board.getWinner(), loaded.getWinner());
+        GameBoard other = GameStates.newGame(6, false);
+        other.restoreSnapshot(loaded);
+        assertEquals(board.getWinner(), other.getWinner());
+    }
+
+    @Test
+    public void loadedGamePlaysOnLikeTheSavedGame() throws Exception {
+        GameBoard board = playedGame(4, false, 30);
+        GameBoard other = GameStates.newGame(5, false);
+        other.restoreSnapshot(SaveGameFormat.read(new ByteArrayInputStream(GameStates.encode(board))));
+        RandomPlayer a = new RandomPlayer(new Random(9));
+        RandomPlayer b = new RandomPlayer(new Random(9));
+        for (int i = 0; i < 50 && board.getWinner() < 0; i++) {
+            a.playTurn(board);
+            b.playTurn(other);
+            assertArrayEquals("turn " + board.getTurn(), GameStates.encode(board), GameStates.encode(other));
+        }
+    }
+
+    @Test
+    public void loadsGamesOfAnotherBoardSize() throws Exception {
+        GameBoard board = playedGame(3, false, 30);
+        GameBoard other = new GameBoard(new HeadlessGameListener(), new GameSettings(40, 30, 100, false, 8));
+        other.restoreSnapshot(SaveGameFormat.read(new ByteArrayInputStream(GameStates.encode(board))));
+        assertEquals(24, other.getSettings().getBoardSize());
+        RandomPlayer a = new RandomPlayer(new Random(9));
+        RandomPlayer b = new RandomPlayer(new Random(9));
+        assertArrayEquals(GameStates.encode(board), GameStates.encode(other));
+        for (int i = 0; i < 50 && board.getWinner() < 0; i++) {
+            a.playTurn(board);
+            b.playTurn(other);
+            assertArrayEquals("turn " + board.getTurn(), GameStates.encode(board), GameStates.encode(other));
+        }
+    }
+
+    @Test
+    public void writerReplacesTheSaveFile() throws Exception {
+        File file = File.createTempFile("save", ".ser");
+        try {
+            GameBoard board = playedGame(2, false, 20);
+            SaveGameWriter.write(board.createSnapshot(), file);
+            SaveGameWriter.write(playedGame(2, false, 40).createSnapshot(), file);
+            GameBoard later = playedGame(2, false, 40);
+            assertArrayEquals(GameStates.encode(later), GameStates.encode(read(file)));
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOtherFiles() throws Exception {
+        SaveGameFormat.read(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5, 6}));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsVersion1Files() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(SaveGameFormat.MAGIC);
+        out.writeShort(1);
+        out.writeInt(24);
+        SaveGameFormat.read(new ByteArrayInputStream(bytes.toByteArray()));
+    }
+
+    private static GameSnapshot read(File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return SaveGameFormat.read(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    static GameBoard playedGame(long seed, boolean entityStore, int turns) {
+        GameBoard board = GameStates.newGame(seed, entityStore);
+        RandomPlayer player = new RandomPlayer(new Random(seed));
+        while (board.getTurn() < turns && board.getWinner() < 0) {
+            player.playTurn(board);
+        }
+        return board;
+    }
+}
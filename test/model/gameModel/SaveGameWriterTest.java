@@ -0,0 +1,111 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import model.simulation.RandomPlayer;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * The save game writer writes the newest snapshot and never leaves a
+ * broken save file behind.
+ */
+public class SaveGameWriterTest {
+
+    private File dir;
+    private File file;
+
+    @Before
+    public void createDir() throws IOException {
+        dir = Files.createTempDirectory("saves").toFile();
+        file = new File(dir, "save.ser");
+    }
+
+    @After
+    public void deleteDir() {
+        File[] files = dir.listFiles();
+        if (files != null) {
+            for (File f : files) {
+                f.delete();
+            }
+        }
+        dir.delete();
+    }
+
+    @Test
+    public void writesTheLatestSubmittedSnapshot() throws Exception {
+        GameBoard board = GameStates.newGame(3, false);
+        RandomPlayer player = new RandomPlayer(new Random(3));
+        SaveGameWriter writer = new SaveGameWriter(file);
+        try {
+            // Snapshots submitted while the writer is busy replace each other
+            for (int i = 0; i < 40 && board.getWinner() < 0; i++) {
+                player.playTurn(board);
+                writer.submit(board.createSnapshot());
+            }
+            writer.flush();
+        } finally {
+            writer.shutdown();
+        }
+        assertArrayEquals(GameStates.encode(board), Files.readAllBytes(file.toPath()));
+        assertFalse(new File(dir, "save.ser.tmp").exists());
+    }
+
+    @Test
+    public void autosavesKeepTheSavedGame() throws Exception {
+        GameBoard board = GameStates.newGame(5, false);
+        SaveGameWriter writer = new SaveGameWriter(file);
+        File autoSaveFile = new File(dir, "autosave.ser");
+        SaveGameWriter autoSaveWriter = new SaveGameWriter(autoSaveFile);
+        try {
+            board.setSaveWriter(writer);
+            board.setAutoSaveWriter(autoSaveWriter, 1);
+            board.saveGame();
+            byte[] saved = GameStates.encode(board);
+
+            RandomPlayer player = new RandomPlayer(new Random(5));
+            for (int i = 0; i < 10 && board.getWinner() < 0; i++) {
+                player.playTurn(board);
+            }
+            writer.flush();
+            autoSaveWriter.flush();
+            assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+            assertTrue(autoSaveFile.exists());
+        } finally {
+            writer.shutdown();
+            autoSaveWriter.shutdown();
+        }
+    }
+
+    @Test
+    public void failedWriteKeepsTheOldFile() throws Exception {
+        GameBoard board = GameStates.newGame(4, false);
+        SaveGameWriter.write(board.createSnapshot(), file);
+        byte[] saved = Files.readAllBytes(file.toPath());
+
+        RandomPlayer player = new RandomPlayer(new Random(4));
+        for (int i = 0; i < 10; i++) {
+            player.playTurn(board);
+        }
+        // The temporary file can not be created where a directory is
+        File tmp = new File(dir, "save.ser.tmp");
+        tmp.mkdir();
+        try {
+            SaveGameWriter.write(board.createSnapshot(), file);
+            fail("The save file was written over a directory");
+        } catch (IOException expected) {
+            // The write failed before the save file was touched
+        }
+        assertArrayEquals(saved, Files.readAllBytes(file.toPath()));
+    }
+}
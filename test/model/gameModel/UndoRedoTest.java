@@ -0,0 +1,146 @@
+package model.gameModel;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.simulation.RandomPlayer;
+
+import org.junit.Test;
+
+/**
+ * Undo and redo through the care taker give back the states the game
+ * went through.
+ */
+public class UndoRedoTest {
+
+    private static final int DEPTH = 30;
+
+    /** The mementos of the actions since the last passed turn. */
+    private CareTaker careTaker;
+
+    @Test
+    public void undoRestoresEveryEarlierState() throws Exception {
+        int undos = 0;
+        for (long seed = 0; seed < 10; seed++) {
+            undos += checkUndo(seed, seed % 2 == 0);
+        }
+        assertTrue(undos > 0);
+    }
+
+    @Test
+    public void undoAndRedoWalkTheSameStates() throws Exception {
+        for (long seed = 0; seed < 10; seed++) {
+            checkUndoRedo(seed, seed % 2 == 0);
+        }
+    }
+
+    @Test
+    public void redoneActionsReplayFromTheJournal() throws Exception {
+        int redone = 0, pickUps = 0;
+        for (long seed = 0; seed < 20; seed++) {
+            GameBoard board = GameStates.newGame(seed, seed % 2 == 0);
+            board.enableJournal(20);
+            play(board, new RandomPlayer(new Random(seed)));
+            CommandJournal journal = board.getJournal();
+            boolean[] recorded = new boolean[journal.size()];
+            for (int i = 0; i < recorded.length; i++) {
+                recorded[i] = journal.isPickUp(i);
+            }
+            int undos = 0;
+            while (careTaker.size() > 0) {
+                board.restoreMemento(careTaker.retrieveMemento());
+                undos++;
+            }
+            while (careTaker.redoSize() > 0) {
+                board.redoMemento(careTaker.retrieveRedoMemento());
+            }
+            // The redone actions are recorded again as they were played
+            assertEquals(recorded.length, journal.size());
+            for (int i = 0; i < recorded.length; i++) {
+                assertEquals("seed " + seed + " action " + i, recorded[i], journal.isPickUp(i));
+            }
+            for (int i = recorded.length - undos; i < recorded.length; i++) {
+                if (recorded[i]) pickUps++;
+            }
+            redone += undos;
+
+            int turn = board.getTurn();
+            byte[] state = GameStates.encode(board);
+            assertEquals(turn, board.jumpToTurn(turn));
+            assertArrayEquals("seed " + seed, state, GameStates.encode(board));
+        }
+        // Both kinds of actions were redone
+        assertTrue(pickUps > 0 && pickUps < redone);
+    }
+
+    private int checkUndo(long seed, boolean entityStore) throws Exception {
+        GameBoard board = GameStates.newGame(seed, entityStore);
+        board.enableJournal(20);
+        List<byte[]> states = play(board, new RandomPlayer(new Random(seed)));
+        int undos = 0;
+        for (int i = states.size() - 2; careTaker.size() > 0; i--) {
+            board.restoreMemento(careTaker.retrieveMemento());
+            assertArrayEquals("seed " + seed + " undo to " + i, states.get(i), GameStates.encode(board));
+            undos++;
+        }
+        return undos;
+    }
+
+    private void checkUndoRedo(long seed, boolean entityStore) throws Exception {
+        GameBoard board = GameStates.newGame(seed, entityStore);
+        board.enableJournal(7);
+        List<byte[]> states = play(board, new RandomPlayer(new Random(seed)));
+        Random rand = new Random(seed);
+        int pos = states.size() - 1;
+        for (int step = 0; step < 200; step++) {
+            if (rand.nextBoolean() && careTaker.size() > 0) {
+                board.restoreMemento(careTaker.retrieveMemento());
+                pos--;
+            } else if (careTaker.redoSize() > 0) {
+                board.redoMemento(careTaker.retrieveRedoMemento());
+                pos++;
+            } else {
+                continue;
+            }
+            assertArrayEquals("seed " + seed + " step " + step, states.get(pos), GameStates.encode(board));
+        }
+    }
+
+    /**
+     * Plays a game and keeps a memento of every action since the last
+     * passed turn, which can not be undone.
+     *
+     * @return the states before and after each of these actions
+     */
+    private List<byte[]> play(GameBoard board, RandomPlayer player) throws Exception {
+        careTaker = new CareTaker(DEPTH);
+        List<byte[]> states = new ArrayList<byte[]>();
+        states.add(GameStates.encode(board));
+        while (board.getTurn() < 120 && board.getWinner() < 0) {
+            byte[] before = GameStates.encode(board);
+            int size = board.getJournal().size();
+            player.playTurn(board);
+            if (GameStates.isUndoable(board, size)) {
+                careTaker.saveMemento(board.createMemento());
+                if (careTaker.size() == 1) {
+                    states.clear();
+                    states.add(before);
+                }
+                states.add(GameStates.encode(board));
+                while (states.size() > careTaker.size() + 1) {
+                    states.remove(0);
+                }
+            } else {
+                careTaker = new CareTaker(DEPTH);
+                states.clear();
+                states.add(GameStates.encode(board));
+            }
+        }
+        return states;
+    }
+}